@@ -1,5 +1,5 @@
 import axios from 'axios';
-import { LogPattern, LogEntry, QueryRequest, QueryResponse } from './types';
+import { ColumnarLogs, LogPattern, LogEntry, QueryRequest, QueryResponse } from './types';
 
 // Use port 8080 for development, same port for production
 const API_BASE_URL = window.location.hostname === 'localhost' || window.location.hostname.includes('replit.dev')
@@ -13,6 +13,25 @@ const api = axios.create({
   },
 });
 
+const COLUMNAR = 'application/vnd.loganalyzer.columnar+json';
+
+// Rebuilds row objects; timestamps get the same yyyy-MM-ddTHH:mm form as the plain JSON responses
+export const decodeColumnarLogs = (data: ColumnarLogs): LogEntry[] => {
+  const { columns, levels } = data;
+  const logs: LogEntry[] = [];
+  for (let i = 0; i < data.count; i++) {
+    const timestamp = columns.timestamp?.[i];
+    const level = columns.logLevel?.[i];
+    logs.push({
+      id: columns.id?.[i] ?? 0,
+      timestamp: timestamp != null ? new Date(timestamp).toISOString().slice(0, 16) : '',
+      logLevel: level != null ? levels[level] : '',
+      message: columns.message?.[i] ?? '',
+    });
+  }
+  return logs;
+};
+
 // Log Patterns API
 export const logPatternApi = {
   getAll: (): Promise<LogPattern[]> => 
@@ -40,13 +59,20 @@ export const settingsApi = {
 // Query API
 export const queryApi = {
   processQuery: (request: QueryRequest): Promise<QueryResponse> => 
-    api.post('/query', request).then(res => res.data),
+    api.post('/query', request, { headers: { Accept: COLUMNAR } })
+      .then(res => ({ ...res.data, logs: res.data.logs ? decodeColumnarLogs(res.data.logs) : res.data.logs })),
 };
 
 // Log Entries API
 export const logEntryApi = {
   getAll: (): Promise<LogEntry[]> => 
-    api.get('/logs').then(res => res.data),
+    api.get('/logs', { headers: { Accept: COLUMNAR } }).then(res => decodeColumnarLogs(res.data)),
+  
+  getById: (id: number): Promise<LogEntry> => 
+    api.get(`/logs/${id}`).then(res => res.data),
+  
+  search: (q: string, limit = 100): Promise<LogEntry[]> => 
+    api.get('/logs/search', { params: { q, limit } }).then(res => res.data),
   
   create: (logEntry: Omit<LogEntry, 'id'>): Promise<LogEntry> => 
     api.post('/logs', logEntry).then(res => res.data),
@@ -0,0 +1,68 @@
+package com.loganalyzer.controller;
+
+import com.loganalyzer.service.LogSnapshotService;
+import com.loganalyzer.service.SyntheticDataService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin")
+@CrossOrigin(origins = "http://localhost:5000")
+public class AdminController {
+
+    @Autowired
+    private LogSnapshotService snapshotService;
+
+    @Autowired
+    private SyntheticDataService syntheticDataService;
+
+    @PostMapping("/snapshot")
+    public ResponseEntity<Map<String, Object>> createSnapshot() {
+        try {
+            return ResponseEntity.ok(snapshotService.createSnapshot());
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError()
+                .body(Map.of("error", "Error creating snapshot: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/generate")
+    public ResponseEntity<Map<String, Object>> generate(
+            @RequestParam(defaultValue = "100000") long rows,
+            @RequestParam(defaultValue = "200") double rate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam(defaultValue = "42") long seed,
+            @RequestParam(defaultValue = "64") int flows,
+            @RequestParam(defaultValue = "0.02") double errorRate,
+            @RequestParam(defaultValue = "21600") long burstEverySeconds,
+            @RequestParam(defaultValue = "600") long burstSeconds,
+            @RequestParam(defaultValue = "15") double burstMultiplier) {
+        try {
+            return ResponseEntity.accepted().body(syntheticDataService.start(rows, rate, start, seed, generator -> generator
+                .withConcurrentFlows(flows)
+                .withErrorRate(errorRate)
+                .withErrorBursts(burstEverySeconds, burstSeconds, burstMultiplier)));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/generate")
+    public ResponseEntity<Map<String, Object>> getGenerationStatus() {
+        return ResponseEntity.ok(syntheticDataService.getStatus());
+    }
+
+    @DeleteMapping("/generate")
+    public ResponseEntity<Map<String, Object>> cancelGeneration() {
+        syntheticDataService.cancel();
+        return ResponseEntity.ok(syntheticDataService.getStatus());
+    }
+}
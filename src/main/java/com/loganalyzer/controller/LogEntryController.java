@@ -1,12 +1,31 @@
 package com.loganalyzer.controller;
 
+import com.loganalyzer.dto.ColumnarLogs;
 import com.loganalyzer.model.LogEntry;
+import com.loganalyzer.service.IngestBufferService;
+import com.loganalyzer.service.LogExportService;
 import com.loganalyzer.service.LogAnalyzerService;
+import com.loganalyzer.service.LogBatchWriter;
+import com.loganalyzer.service.LogReceiverService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @RestController
 @RequestMapping("/api/logs")
@@ -16,20 +35,132 @@ public class LogEntryController {
     @Autowired
     private LogAnalyzerService service;
 
+    @Autowired
+    private IngestBufferService ingestBuffer;
+
+    @Autowired
+    private LogReceiverService logReceiver;
+
+    @Autowired
+    private LogExportService exportService;
+
+    @Value("${log-analyzer.ingest.sync-timeout-ms:5000}")
+    private long syncTimeoutMs;
+
     @GetMapping
     public ResponseEntity<List<LogEntry>> getAllLogs() {
         List<LogEntry> logs = service.getAllLogEntries();
         return ResponseEntity.ok(logs);
     }
 
+    @GetMapping(produces = ColumnarLogs.MEDIA_TYPE)
+    public ResponseEntity<?> getAllLogsColumnar(@RequestParam(required = false) String fields,
+                                                @RequestParam(defaultValue = "0") int maxMessageLength) {
+        try {
+            List<String> projection = exportService.resolveFields(fields);
+            return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(ColumnarLogs.MEDIA_TYPE))
+                .body(new ColumnarLogs(service.getAllLogEntries(), projection, maxMessageLength));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON)
+                .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<LogEntry> getLog(@PathVariable Long id) {
+        return service.getLogEntry(id)
+            .map(ResponseEntity::ok)
+            .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<?> searchLogs(@RequestParam String q,
+                                        @RequestParam(defaultValue = "100") int limit) {
+        if (q.isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Search term must not be empty"));
+        }
+        return ResponseEntity.ok(service.searchLogEntries(q, Math.max(1, Math.min(limit, 5000))));
+    }
+
     @PostMapping
-    public ResponseEntity<LogEntry> createLog(@RequestBody LogEntry logEntry) {
-        LogEntry savedLog = service.saveLogEntry(logEntry);
-        return ResponseEntity.ok(savedLog);
+    public ResponseEntity<?> createLog(@RequestBody LogEntry logEntry,
+                                       @RequestParam(defaultValue = "false") boolean sync) {
+        // Rejected here: in a group commit one bad row would roll back everyone else's accepted entries
+        String invalid = LogBatchWriter.validationError(logEntry);
+        if (invalid != null) {
+            return ResponseEntity.badRequest().body(Map.of("error", invalid));
+        }
+        if (!ingestBuffer.isWriteBehindEnabled()) {
+            LogEntry savedLog = service.saveLogEntry(logEntry);
+            return ResponseEntity.ok(savedLog);
+        }
+
+        CompletableFuture<LogEntry> ack = ingestBuffer.submit(logEntry);
+        if (ack == null) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .body(Map.of("error", "Ingest buffer is full, retry later"));
+        }
+        if (!sync) {
+            return ResponseEntity.accepted().body(Map.of("status", "accepted"));
+        }
+
+        // Synchronous mode: wait until the group commit containing this entry is durable
+        try {
+            return ResponseEntity.ok(ack.get(syncTimeoutMs, TimeUnit.MILLISECONDS));
+        } catch (TimeoutException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Map.of("error", "Timed out waiting for commit"));
+        } catch (ExecutionException e) {
+            return ResponseEntity.internalServerError()
+                .body(Map.of("error", "Failed to save log entry: " + e.getCause().getMessage()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Map.of("error", "Interrupted while waiting for commit"));
+        }
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportLogs(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String level,
+            @RequestParam(required = false) String fields,
+            NativeWebRequest webRequest) {
+        LogExportService.Format exportFormat;
+        List<String> projection;
+        try {
+            exportFormat = LogExportService.Format.fromName(format);
+            projection = exportService.resolveFields(fields);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON)
+                .body(exportService.errorBody(e.getMessage()));
+        }
+
+        exportService.applyExportTimeout(webRequest);
+        StreamingResponseBody body = out -> exportService.exportRange(out, exportFormat, projection, from, to, level);
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("application/gzip"))
+            .header(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"logs." + exportFormat.getExtension() + ".gz\"")
+            .body(body);
+    }
+
+    @GetMapping("/ingest/stats")
+    public ResponseEntity<Map<String, Object>> getIngestStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(ingestBuffer.getStats());
+        stats.put("receiver", logReceiver.getStats());
+        return ResponseEntity.ok(stats);
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<LogEntry> updateLog(@PathVariable Long id, @RequestBody LogEntry logEntry) {
+    public ResponseEntity<?> updateLog(@PathVariable Long id, @RequestBody LogEntry logEntry) {
+        String invalid = LogBatchWriter.validationError(logEntry);
+        if (invalid != null) {
+            return ResponseEntity.badRequest().body(Map.of("error", invalid));
+        }
         logEntry.setId(id);
         LogEntry updatedLog = service.saveLogEntry(logEntry);
         return ResponseEntity.ok(updatedLog);
@@ -40,4 +171,4 @@ public class LogEntryController {
         service.deleteLogEntry(id);
         return ResponseEntity.ok().build();
     }
-}
\ No newline at end of file
+}
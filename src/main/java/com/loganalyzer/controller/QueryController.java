@@ -1,11 +1,25 @@
 package com.loganalyzer.controller;
 
+import com.loganalyzer.dto.ColumnarLogs;
+import com.loganalyzer.dto.ColumnarQueryResponse;
 import com.loganalyzer.dto.QueryRequest;
 import com.loganalyzer.dto.QueryResponse;
+import com.loganalyzer.service.ChunkedAnalysisService;
 import com.loganalyzer.service.LogAnalyzerService;
+import com.loganalyzer.service.LogExportService;
+import com.loganalyzer.service.SpeculativeQueryExecutor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/api/query")
@@ -15,17 +29,93 @@ public class QueryController {
     @Autowired
     private LogAnalyzerService service;
 
+    @Autowired
+    private SpeculativeQueryExecutor speculativeQueryExecutor;
+
+    @Autowired
+    private ChunkedAnalysisService chunkedAnalysisService;
+
+    @Autowired
+    private LogExportService exportService;
+
     @PostMapping
     public ResponseEntity<QueryResponse> processQuery(@RequestBody QueryRequest request) {
+        return runQuery(request, response -> response);
+    }
+
+    @PostMapping(produces = ColumnarLogs.MEDIA_TYPE)
+    public ResponseEntity<?> processQueryColumnar(@RequestBody QueryRequest request,
+                                                  @RequestParam(required = false) String fields,
+                                                  @RequestParam(defaultValue = "0") int maxMessageLength) {
+        List<String> projection;
         try {
-            QueryResponse response = service.processQuery(request.getQuery());
-            return ResponseEntity.ok(response);
+            projection = exportService.resolveFields(fields);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON)
+                .body(Map.of("error", e.getMessage()));
+        }
+        // Checked before the LLM round trip rather than when the response is built
+        if (maxMessageLength < 0) {
+            return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON)
+                .body(Map.of("error", "maxMessageLength must not be negative"));
+        }
+        return runQuery(request, response -> new ColumnarQueryResponse(response.getAnalysis(),
+            response.getLogs() == null ? null : new ColumnarLogs(response.getLogs(), projection, maxMessageLength),
+            response.getQueryId()));
+    }
+
+    // Shared by both representations of /api/query; only the encoding of the response differs
+    private <T> ResponseEntity<T> runQuery(QueryRequest request, Function<QueryResponse, T> encoding) {
+        QueryResponse response;
+        try {
+            response = service.processQuery(request.getQuery(), request.getSpeculative());
         } catch (Exception e) {
-            QueryResponse errorResponse = new QueryResponse(
-                "Error processing query: " + e.getMessage(), 
-                null
-            );
-            return ResponseEntity.internalServerError().body(errorResponse);
+            QueryResponse errorResponse = new QueryResponse("Error processing query: " + e.getMessage(), null);
+            return ResponseEntity.internalServerError().body(encoding.apply(errorResponse));
+        }
+        return ResponseEntity.ok(encoding.apply(response));
+    }
+
+    /**
+     * Stream the full result of the SQL behind a previous /api/query response, identified by its queryId.
+     */
+    @PostMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportQuery(@RequestBody QueryRequest request,
+                                         @RequestParam(defaultValue = "ndjson") String format,
+                                         @RequestParam(required = false) String fields,
+                                         NativeWebRequest webRequest) {
+        LogExportService.Format exportFormat;
+        List<String> projection;
+        try {
+            exportFormat = LogExportService.Format.fromName(format);
+            projection = exportService.resolveFields(fields);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON)
+                .body(exportService.errorBody(e.getMessage()));
         }
+        if (request.getQueryId() == null || request.getQueryId().isBlank()) {
+            return ResponseEntity.badRequest().contentType(MediaType.APPLICATION_JSON)
+                .body(exportService.errorBody("queryId from a previous /api/query response is required"));
+        }
+        String sql = exportService.rememberedQuery(request.getQueryId());
+        if (sql == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).contentType(MediaType.APPLICATION_JSON)
+                .body(exportService.errorBody("Unknown or expired queryId, run the query again"));
+        }
+
+        exportService.applyExportTimeout(webRequest);
+        StreamingResponseBody body = out -> exportService.exportQuery(out, exportFormat, projection, sql);
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType("application/gzip"))
+            .header(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"query." + exportFormat.getExtension() + ".gz\"")
+            .body(body);
+    }
+
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> getQueryStats() {
+        return ResponseEntity.ok(Map.of(
+            "speculative", speculativeQueryExecutor.getStats(),
+            "analysis", chunkedAnalysisService.getStats()));
     }
 }
\ No newline at end of file
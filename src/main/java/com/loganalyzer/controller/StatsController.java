@@ -0,0 +1,79 @@
+package com.loganalyzer.controller;
+
+import com.loganalyzer.service.RollupService;
+import com.loganalyzer.service.SegmentIndexService;
+import com.loganalyzer.service.StreamStatsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/stats")
+@CrossOrigin(origins = "http://localhost:5000")
+public class StatsController {
+
+    @Autowired
+    private RollupService rollupService;
+
+    @Autowired
+    private SegmentIndexService segmentIndexService;
+
+    @Autowired
+    private StreamStatsService streamStatsService;
+
+    @GetMapping("/histogram")
+    public ResponseEntity<Map<String, Object>> getHistogram(
+            @RequestParam(defaultValue = "1m") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(required = false) String level,
+            @RequestParam(required = false) Long patternId,
+            @RequestParam(defaultValue = "level") String groupBy) {
+        try {
+            RollupService.Granularity resolved = RollupService.Granularity.fromCode(granularity);
+            List<Map<String, Object>> buckets = rollupService.histogram(resolved, from, to, level, patternId, groupBy);
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("granularity", resolved.getCode());
+            response.put("buckets", buckets);
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/segments")
+    public ResponseEntity<Map<String, Object>> getSegmentStats() {
+        return ResponseEntity.ok(segmentIndexService.getStats());
+    }
+
+    @GetMapping("/top")
+    public ResponseEntity<Map<String, Object>> getTopTemplates(
+            @RequestParam(defaultValue = "ERROR") String level,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            return ResponseEntity.ok(streamStatsService.top(level, from, to, Math.max(1, Math.min(limit, 100))));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/distinct")
+    public ResponseEntity<Map<String, Object>> getDistinctCount(
+            @RequestParam String key,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        try {
+            return ResponseEntity.ok(streamStatsService.distinct(key, from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
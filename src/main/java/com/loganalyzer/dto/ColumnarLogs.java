@@ -0,0 +1,145 @@
+package com.loganalyzer.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.loganalyzer.model.LogEntry;
+
+import java.io.IOException;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact encoding of a log list, served for {@value #MEDIA_TYPE}: one array per
+ * projected field instead of one object per row, log levels as indexes into a
+ * {@code levels} dictionary and timestamps as epoch milliseconds (the wall-clock
+ * value read as UTC). With {@code maxMessageLength} set, longer messages are cut
+ * and their row indexes listed in {@code truncated}; the full entry is available
+ * from GET /api/logs/{id}.
+ *
+ * <pre>
+ * {"count":2,"fields":["id","timestamp","logLevel","message"],"levels":["INFO","ERROR"],
+ *  "columns":{"id":[7,8],"timestamp":[1760000000000,1760000001000],"logLevel":[0,1],"message":["a","b"]},
+ *  "maxMessageLength":0,"truncated":[]}
+ * </pre>
+ */
+@JsonSerialize(using = ColumnarLogs.Serializer.class)
+public class ColumnarLogs {
+
+    public static final String MEDIA_TYPE = "application/vnd.loganalyzer.columnar+json";
+
+    private final List<LogEntry> logs;
+    private final List<String> fields;
+    private final int maxMessageLength;
+
+    /**
+     * @param fields           subset of id, timestamp, logLevel, message in output order
+     * @param maxMessageLength 0 keeps messages whole
+     */
+    public ColumnarLogs(List<LogEntry> logs, List<String> fields, int maxMessageLength) {
+        if (maxMessageLength < 0) {
+            throw new IllegalArgumentException("maxMessageLength must not be negative");
+        }
+        this.logs = logs;
+        this.fields = fields;
+        this.maxMessageLength = maxMessageLength;
+    }
+
+    public List<LogEntry> getLogs() {
+        return logs;
+    }
+
+    public List<String> getFields() {
+        return fields;
+    }
+
+    public int getMaxMessageLength() {
+        return maxMessageLength;
+    }
+
+    // Writes straight to the generator; no per-row maps or boxed column lists are built
+    public static class Serializer extends JsonSerializer<ColumnarLogs> {
+
+        @Override
+        public void serialize(ColumnarLogs value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            List<LogEntry> logs = value.logs;
+            generator.writeStartObject();
+            generator.writeNumberField("count", logs.size());
+            generator.writeArrayFieldStart("fields");
+            for (String field : value.fields) {
+                generator.writeString(field);
+            }
+            generator.writeEndArray();
+
+            Map<String, Integer> levelIndex = new LinkedHashMap<>();
+            if (value.fields.contains("logLevel")) {
+                for (LogEntry log : logs) {
+                    if (log.getLogLevel() != null) {
+                        levelIndex.putIfAbsent(log.getLogLevel(), levelIndex.size());
+                    }
+                }
+            }
+            generator.writeArrayFieldStart("levels");
+            for (String level : levelIndex.keySet()) {
+                generator.writeString(level);
+            }
+            generator.writeEndArray();
+
+            List<Integer> truncated = new ArrayList<>();
+            generator.writeObjectFieldStart("columns");
+            for (String field : value.fields) {
+                generator.writeArrayFieldStart(field);
+                for (int row = 0; row < logs.size(); row++) {
+                    LogEntry log = logs.get(row);
+                    switch (field) {
+                        case "id" -> writeNumber(generator, log.getId());
+                        case "timestamp" -> writeNumber(generator, log.getTimestamp() == null ? null
+                            : log.getTimestamp().toInstant(ZoneOffset.UTC).toEpochMilli());
+                        case "logLevel" -> writeNumber(generator, log.getLogLevel() == null ? null
+                            : (long) levelIndex.get(log.getLogLevel()));
+                        case "message" -> {
+                            String message = log.getMessage();
+                            if (message != null && value.maxMessageLength > 0 && message.length() > value.maxMessageLength) {
+                                int end = value.maxMessageLength;
+                                // Do not split a surrogate pair
+                                if (Character.isHighSurrogate(message.charAt(end - 1))) {
+                                    end--;
+                                }
+                                message = message.substring(0, end);
+                                truncated.add(row);
+                            }
+                            if (message == null) {
+                                generator.writeNull();
+                            } else {
+                                generator.writeString(message);
+                            }
+                        }
+                        default -> throw new IllegalStateException("Unknown field " + field);
+                    }
+                }
+                generator.writeEndArray();
+            }
+            generator.writeEndObject();
+
+            generator.writeNumberField("maxMessageLength", value.maxMessageLength);
+            generator.writeArrayFieldStart("truncated");
+            for (int row : truncated) {
+                generator.writeNumber(row);
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+
+        private static void writeNumber(JsonGenerator generator, Long number) throws IOException {
+            if (number == null) {
+                generator.writeNull();
+            } else {
+                generator.writeNumber(number);
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.loganalyzer.dto;
+
+/**
+ * {@link QueryResponse} with the logs in the compact {@link ColumnarLogs} encoding.
+ */
+public class ColumnarQueryResponse {
+    private String analysis;
+    private ColumnarLogs logs;
+    private String queryId;
+
+    public ColumnarQueryResponse() {}
+
+    public ColumnarQueryResponse(String analysis, ColumnarLogs logs) {
+        this.analysis = analysis;
+        this.logs = logs;
+    }
+
+    public ColumnarQueryResponse(String analysis, ColumnarLogs logs, String queryId) {
+        this.analysis = analysis;
+        this.logs = logs;
+        this.queryId = queryId;
+    }
+
+    public String getAnalysis() {
+        return analysis;
+    }
+
+    public void setAnalysis(String analysis) {
+        this.analysis = analysis;
+    }
+
+    public ColumnarLogs getLogs() {
+        return logs;
+    }
+
+    public void setLogs(ColumnarLogs logs) {
+        this.logs = logs;
+    }
+
+    public String getQueryId() {
+        return queryId;
+    }
+
+    public void setQueryId(String queryId) {
+        this.queryId = queryId;
+    }
+}
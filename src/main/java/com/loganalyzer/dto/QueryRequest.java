@@ -2,6 +2,9 @@ package com.loganalyzer.dto;
 
 public class QueryRequest {
     private String query;
+    private Boolean speculative;
+    // Export only: the queryId of a previous /api/query response
+    private String queryId;
 
     public QueryRequest() {}
 
@@ -16,4 +19,20 @@ public class QueryRequest {
     public void setQuery(String query) {
         this.query = query;
     }
+
+    public Boolean getSpeculative() {
+        return speculative;
+    }
+
+    public void setSpeculative(Boolean speculative) {
+        this.speculative = speculative;
+    }
+
+    public String getQueryId() {
+        return queryId;
+    }
+
+    public void setQueryId(String queryId) {
+        this.queryId = queryId;
+    }
 }
\ No newline at end of file
@@ -6,6 +6,8 @@ import java.util.List;
 public class QueryResponse {
     private String analysis;
     private List<LogEntry> logs;
+    // Pass back to /api/query/export to stream the full result of the SQL that produced these logs
+    private String queryId;
 
     public QueryResponse() {}
 
@@ -14,6 +16,12 @@ public class QueryResponse {
         this.logs = logs;
     }
 
+    public QueryResponse(String analysis, List<LogEntry> logs, String queryId) {
+        this.analysis = analysis;
+        this.logs = logs;
+        this.queryId = queryId;
+    }
+
     public String getAnalysis() {
         return analysis;
     }
@@ -29,4 +37,12 @@ public class QueryResponse {
     public void setLogs(List<LogEntry> logs) {
         this.logs = logs;
     }
+
+    public String getQueryId() {
+        return queryId;
+    }
+
+    public void setQueryId(String queryId) {
+        this.queryId = queryId;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,29 @@
+package com.loganalyzer.dto;
+
+public class SqlCandidate {
+    private String kind;
+    private String sql;
+
+    public SqlCandidate() {}
+
+    public SqlCandidate(String kind, String sql) {
+        this.kind = kind;
+        this.sql = sql;
+    }
+
+    public String getKind() {
+        return kind;
+    }
+
+    public void setKind(String kind) {
+        this.kind = kind;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public void setSql(String sql) {
+        this.sql = sql;
+    }
+}
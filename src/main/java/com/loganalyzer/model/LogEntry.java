@@ -5,7 +5,7 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "log_entries")
+@Table(name = "log_entries", indexes = @Index(name = "idx_log_entries_timestamp", columnList = "timestamp"))
 public class LogEntry {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -0,0 +1,42 @@
+package com.loganalyzer.repository;
+
+import com.loganalyzer.model.LogEntry;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Maps rows shaped as (id, timestamp, log_level, message) to LogEntry,
+ * the column order required from generated SQL queries.
+ */
+public class LogEntryRowMapper implements RowMapper<LogEntry> {
+
+    public static final LogEntryRowMapper INSTANCE = new LogEntryRowMapper();
+
+    @Override
+    public LogEntry mapRow(ResultSet rs, int rowNum) throws SQLException {
+        LogEntry entry = new LogEntry();
+        if (rs.getMetaData().getColumnCount() < 4) {
+            return entry;
+        }
+
+        Object id = rs.getObject(1);
+        if (id instanceof Number) {
+            entry.setId(((Number) id).longValue());
+        }
+
+        Object timestamp = rs.getObject(2);
+        if (timestamp instanceof Timestamp) {
+            entry.setTimestamp(((Timestamp) timestamp).toLocalDateTime());
+        } else if (timestamp instanceof LocalDateTime) {
+            entry.setTimestamp((LocalDateTime) timestamp);
+        }
+
+        entry.setLogLevel(rs.getString(3));
+        entry.setMessage(rs.getString(4));
+        return entry;
+    }
+}
@@ -0,0 +1,240 @@
+package com.loganalyzer.service;
+
+import com.loganalyzer.model.LogEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Analysis of result sets too large for one prompt. Time-ordered logs are cut into
+ * chunks under a token budget, each chunk is summarized by a concurrent LLM call,
+ * and a final call answers the question from the ordered summaries. Chunk
+ * boundaries are content-defined and summaries are cached by content hash, so
+ * follow-up questions over overlapping logs reuse most of the map step. A failed
+ * chunk or merge call fails the analysis with the chunk it was working on; the
+ * summaries that did complete stay cached for a retry.
+ */
+@Service
+public class ChunkedAnalysisService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChunkedAnalysisService.class);
+
+    // Bumped whenever the summary prompt changes so stale cached summaries are not reused
+    private static final String SUMMARY_VERSION = "v1";
+
+    // Past half the budget, a chunk ends after a line whose hash hits this modulus (about every 32 lines)
+    private static final int BOUNDARY_MODULUS = 32;
+
+    @Autowired
+    private DeepSeekService deepSeekService;
+
+    // auto switches to chunked mode above the threshold; single and chunked force one path
+    @Value("${log-analyzer.analysis.mode:auto}")
+    private String mode;
+
+    @Value("${log-analyzer.analysis.chunked-threshold-tokens:24000}")
+    private int chunkedThresholdTokens;
+
+    @Value("${log-analyzer.analysis.chunk-tokens:6000}")
+    private int chunkTokens;
+
+    @Value("${log-analyzer.analysis.parallelism:4}")
+    private int parallelism;
+
+    @Value("${log-analyzer.analysis.chunk-timeout-ms:120000}")
+    private long chunkTimeoutMs;
+
+    @Value("${log-analyzer.analysis.cache-size:1024}")
+    private int cacheSize;
+
+    private final Map<String, String> summaryCache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > cacheSize;
+        }
+    };
+
+    private final LongAdder singleRuns = new LongAdder();
+    private final LongAdder chunkedRuns = new LongAdder();
+    private final LongAdder chunksSummarized = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder mergeRounds = new LongAdder();
+
+    public String analyzeLogs(String userQuery, List<LogEntry> logs, String statsContext, String apiKey) {
+        boolean chunked = switch (mode) {
+            case "single" -> false;
+            case "chunked" -> true;
+            default -> estimateTokens(logs) > chunkedThresholdTokens;
+        };
+        if (!chunked) {
+            singleRuns.increment();
+            return deepSeekService.analyzeLogs(userQuery, logs, statsContext, apiKey);
+        }
+        chunkedRuns.increment();
+
+        long started = System.currentTimeMillis();
+        List<LogEntry> ordered = new ArrayList<>(logs);
+        ordered.sort(Comparator.comparing(LogEntry::getTimestamp, Comparator.nullsFirst(Comparator.naturalOrder())));
+        List<List<LogEntry>> chunks = chunk(ordered);
+        logger.info("Chunked analysis of {} logs in {} chunks", logs.size(), chunks.size());
+
+        List<String> summaries = Flux.range(0, chunks.size())
+            .flatMapSequential(i -> summarize(chunks.get(i), apiKey)
+                .onErrorMap(e -> new RuntimeException("Failed to summarize chunk " + (i + 1) + " of " + chunks.size()
+                    + " (" + timeRange(chunks.get(i)) + "): " + e.getMessage(), e)), Math.max(1, parallelism))
+            .collectList()
+            .block();
+
+        // Summaries that still do not fit one prompt are merged in ordered groups until they do
+        int round = 0;
+        while (summaries.size() > 1 && estimateTokens(String.join("\n", summaries)) > chunkedThresholdTokens) {
+            mergeRounds.increment();
+            round++;
+            int currentRound = round;
+            List<List<String>> groups = groupSummaries(summaries);
+            summaries = Flux.range(0, groups.size())
+                .flatMapSequential(i -> deepSeekService.mergeSummaries(groups.get(i), apiKey)
+                    .timeout(Duration.ofMillis(chunkTimeoutMs))
+                    .onErrorMap(e -> new RuntimeException("Failed to merge summary group " + (i + 1) + " of "
+                        + groups.size() + " in round " + currentRound + ": " + e.getMessage(), e)), Math.max(1, parallelism))
+                .collectList()
+                .block();
+        }
+
+        String analysis = deepSeekService.analyzeSummaries(userQuery, summaries, logs.size(), statsContext, apiKey);
+        logger.info("Chunked analysis finished in {} ms", System.currentTimeMillis() - started);
+        return analysis;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("mode", mode);
+        stats.put("singleRuns", singleRuns.sum());
+        stats.put("chunkedRuns", chunkedRuns.sum());
+        stats.put("chunksSummarized", chunksSummarized.sum());
+        stats.put("cacheHits", cacheHits.sum());
+        stats.put("mergeRounds", mergeRounds.sum());
+        synchronized (summaryCache) {
+            stats.put("cachedSummaries", summaryCache.size());
+        }
+        return stats;
+    }
+
+    private Mono<String> summarize(List<LogEntry> chunk, String apiKey) {
+        String key = contentHash(chunk);
+        String cached;
+        synchronized (summaryCache) {
+            cached = summaryCache.get(key);
+        }
+        if (cached != null) {
+            cacheHits.increment();
+            return Mono.just(cached);
+        }
+        return deepSeekService.summarizeLogChunk(chunk, apiKey)
+            .timeout(Duration.ofMillis(chunkTimeoutMs))
+            .doOnNext(summary -> {
+                chunksSummarized.increment();
+                synchronized (summaryCache) {
+                    summaryCache.put(key, summary);
+                }
+            });
+    }
+
+    /**
+     * Cuts the time-ordered logs into chunks of at most {@code chunkTokens}. Once a chunk is
+     * half full it ends after a line whose content hash hits the boundary modulus, so the same
+     * lines produce the same chunks even when the result set starts or ends elsewhere.
+     */
+    List<List<LogEntry>> chunk(List<LogEntry> ordered) {
+        List<List<LogEntry>> chunks = new ArrayList<>();
+        List<LogEntry> current = new ArrayList<>();
+        int currentTokens = 0;
+        for (LogEntry log : ordered) {
+            String line = DeepSeekService.formatLogLine(log);
+            int tokens = estimateTokens(line);
+            if (!current.isEmpty() && currentTokens + tokens > chunkTokens) {
+                chunks.add(current);
+                current = new ArrayList<>();
+                currentTokens = 0;
+            }
+            current.add(log);
+            currentTokens += tokens;
+            if (currentTokens >= chunkTokens / 2 && Math.floorMod(line.hashCode(), BOUNDARY_MODULUS) == 0) {
+                chunks.add(current);
+                current = new ArrayList<>();
+                currentTokens = 0;
+            }
+        }
+        if (!current.isEmpty()) {
+            chunks.add(current);
+        }
+        return chunks;
+    }
+
+    private List<List<String>> groupSummaries(List<String> summaries) {
+        List<List<String>> groups = new ArrayList<>();
+        List<String> current = new ArrayList<>();
+        int currentTokens = 0;
+        for (String summary : summaries) {
+            int tokens = estimateTokens(summary);
+            // A group always takes at least two summaries so every round shrinks the list
+            if (current.size() >= 2 && currentTokens + tokens > chunkTokens) {
+                groups.add(current);
+                current = new ArrayList<>();
+                currentTokens = 0;
+            }
+            current.add(summary);
+            currentTokens += tokens;
+        }
+        if (!current.isEmpty()) {
+            groups.add(current);
+        }
+        return groups;
+    }
+
+    private static String timeRange(List<LogEntry> chunk) {
+        return chunk.get(0).getTimestamp() + " to " + chunk.get(chunk.size() - 1).getTimestamp();
+    }
+
+    private static String contentHash(List<LogEntry> chunk) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(SUMMARY_VERSION.getBytes(StandardCharsets.UTF_8));
+            for (LogEntry log : chunk) {
+                digest.update(DeepSeekService.formatLogLine(log).getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static int estimateTokens(List<LogEntry> logs) {
+        int tokens = 0;
+        for (LogEntry log : logs) {
+            tokens += estimateTokens(DeepSeekService.formatLogLine(log));
+        }
+        return tokens;
+    }
+
+    // Rough estimate for mixed Latin/Cyrillic log text: about three characters per token
+    private static int estimateTokens(String text) {
+        return text.length() / 3 + 1;
+    }
+}
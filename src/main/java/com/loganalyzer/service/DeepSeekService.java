@@ -2,15 +2,18 @@ package com.loganalyzer.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.loganalyzer.dto.SqlCandidate;
 import com.loganalyzer.model.LogEntry;
 import com.loganalyzer.model.LogPattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -20,7 +23,8 @@ import java.util.stream.Collectors;
 public class DeepSeekService {
 
     private static final Logger logger = LoggerFactory.getLogger(DeepSeekService.class);
-    private static final String DEEPSEEK_API_URL = "https://api.deepseek.com/v1/chat/completions";
+    private static final int DEFAULT_MAX_TOKENS = 4000;
+    private static final int SUMMARY_MAX_TOKENS = 1000;
 
     @Autowired
     private WebClient.Builder webClientBuilder;
@@ -28,9 +32,15 @@ public class DeepSeekService {
     @Autowired
     private ObjectMapper objectMapper;
 
+    // Overridable so the client can be pointed at a compatible gateway or a local stub
+    @Value("${log-analyzer.deepseek.api-url:https://api.deepseek.com/v1/chat/completions}")
+    private String apiUrl;
+
+    private volatile WebClient webClient;
+
     // Step 1: Generate SQL query from user request
     public String generateSqlQuery(String userQuery, List<LogPattern> patterns, String apiKey) {
-        String prompt = buildSqlGenerationPrompt(userQuery, patterns);
+        String prompt = buildSqlGenerationPrompt(userQuery, patterns, false);
         
         try {
             String response = callDeepSeekApi(prompt, apiKey);
@@ -41,9 +51,22 @@ public class DeepSeekService {
         }
     }
 
+    // Step 1 (speculative mode): Generate several ranked SQL candidates in one call
+    public List<SqlCandidate> generateSqlCandidates(String userQuery, List<LogPattern> patterns, String apiKey) {
+        String prompt = buildSqlGenerationPrompt(userQuery, patterns, true);
+
+        try {
+            String response = callDeepSeekApi(prompt, apiKey);
+            return extractSqlCandidatesFromResponse(response);
+        } catch (Exception e) {
+            logger.error("Error generating SQL candidates", e);
+            throw new RuntimeException("Failed to generate SQL candidates: " + e.getMessage());
+        }
+    }
+
     // Step 2: Analyze logs and provide textual analysis
-    public String analyzeLogs(String userQuery, List<LogEntry> logs, String apiKey) {
-        String prompt = buildLogAnalysisPrompt(userQuery, logs);
+    public String analyzeLogs(String userQuery, List<LogEntry> logs, String statsContext, String apiKey) {
+        String prompt = buildLogAnalysisPrompt(userQuery, logs, statsContext);
         
         try {
             String response = callDeepSeekApi(prompt, apiKey);
@@ -54,7 +77,37 @@ public class DeepSeekService {
         }
     }
 
-    private String buildSqlGenerationPrompt(String userQuery, List<LogPattern> patterns) {
+    // Map step of chunked analysis: a query-independent summary, so it can be cached and reused
+    public Mono<String> summarizeLogChunk(List<LogEntry> chunk, String apiKey) {
+        return callDeepSeekApiAsync(buildChunkSummaryPrompt(chunk), apiKey, SUMMARY_MAX_TOKENS)
+            .map(this::extractContentFromResponse);
+    }
+
+    // Intermediate reduce step when the chunk summaries themselves do not fit one prompt
+    public Mono<String> mergeSummaries(List<String> summaries, String apiKey) {
+        return callDeepSeekApiAsync(buildSummaryMergePrompt(summaries), apiKey, SUMMARY_MAX_TOKENS)
+            .map(this::extractContentFromResponse);
+    }
+
+    // Final reduce step: answer the user's question from the ordered chunk summaries
+    public String analyzeSummaries(String userQuery, List<String> summaries, int totalLogs, String statsContext,
+                                   String apiKey) {
+        String prompt = buildSummaryAnalysisPrompt(userQuery, summaries, totalLogs, statsContext);
+
+        try {
+            String response = callDeepSeekApi(prompt, apiKey);
+            return extractAnalysisFromResponse(response);
+        } catch (Exception e) {
+            logger.error("Error analyzing log summaries", e);
+            throw new RuntimeException("Failed to analyze logs: " + e.getMessage());
+        }
+    }
+
+    static String formatLogLine(LogEntry log) {
+        return String.format("[%s] %s: %s\n", log.getTimestamp(), log.getLogLevel(), log.getMessage());
+    }
+
+    private String buildSqlGenerationPrompt(String userQuery, List<LogPattern> patterns, boolean candidates) {
         StringBuilder prompt = new StringBuilder();
         prompt.append("[РОЛЬ]\n\n");
         prompt.append("Ты — ведущий системный аналитик и SQL-архитектор с глубокой экспертизой в анализе логов. Твоя специализация — база данных H2 (в режиме PostgreSQL). Ты действуешь полностью автономно, анализируешь задачу, делаешь обоснованные допущения по неясным запросам и всегда предоставляешь готовое, исполняемое SQL-решение.\n\n");
@@ -103,7 +156,11 @@ public class DeepSeekService {
         prompt.append("    Если ошибка обнаружена — автоматически исправь SQL, сохранив максимально приближенную логику.\n\n");
         
         prompt.append("Шаг 5: Вывод результата\n");
-        prompt.append("Верни только итоговый SQL-запрос. Никаких пояснений.\n\n");
+        if (candidates) {
+            prompt.append("Верни три SQL-кандидата в порядке приоритета. Никаких пояснений.\n\n");
+        } else {
+            prompt.append("Верни только итоговый SQL-запрос. Никаких пояснений.\n\n");
+        }
         
         prompt.append("[ПРАВИЛА ОБРАБОТКИ НЕОДНОЗНАЧНЫХ ЗАПРОСОВ]\n\n");
         prompt.append("    Автономность: не задавай вопросов пользователю.\n");
@@ -111,7 +168,17 @@ public class DeepSeekService {
         prompt.append("    Если неясно — возврати более общий SQL с охватом ключевой сущности.\n\n");
         
         prompt.append("[ФОРМАТ ОТВЕТА]\n");
-        prompt.append("Ответ — только финальный SQL-запрос. Никаких пояснений, комментариев или Markdown.\n\n");
+        if (candidates) {
+            prompt.append("Ответ — только JSON без Markdown, с тремя SQL-кандидатами, которые будут выполнены параллельно:\n");
+            prompt.append("{ \"candidates\": [\n");
+            prompt.append("  { \"kind\": \"strict\", \"sql\": \"точный запрос по всем сущностям из запроса пользователя\" },\n");
+            prompt.append("  { \"kind\": \"correlated\", \"sql\": \"запрос со связыванием через общий идентификатор (traceId, requestId)\" },\n");
+            prompt.append("  { \"kind\": \"fallback\", \"sql\": \"общий поиск по ключевой сущности\" }\n");
+            prompt.append("] }\n");
+            prompt.append("Каждый SQL должен соответствовать всем правилам выше и возвращать id, timestamp, log_level, message.\n\n");
+        } else {
+            prompt.append("Ответ — только финальный SQL-запрос. Никаких пояснений, комментариев или Markdown.\n\n");
+        }
         
         prompt.append("[ПРИМЕРЫ]\n\n");
         prompt.append("Пример 1. Прямой поиск по id\n");
@@ -193,7 +260,7 @@ public class DeepSeekService {
         return prompt.toString();
     }
 
-    private String buildLogAnalysisPrompt(String userQuery, List<LogEntry> logs) {
+    private String buildLogAnalysisPrompt(String userQuery, List<LogEntry> logs, String statsContext) {
         StringBuilder prompt = new StringBuilder();
         prompt.append("Ты — senior DevOps инженер с опытом анализа логов.\n");
         prompt.append("Анализируй логи в контексте запроса пользователя:\n");
@@ -203,11 +270,11 @@ public class DeepSeekService {
         prompt.append("- Определи, какие логи реально релевантны запросу\n\n");
         
         prompt.append("Запрос пользователя: \"").append(userQuery).append("\"\n\n");
+        appendStatsContext(prompt, statsContext);
         
         prompt.append("Найденные логи:\n");
         for (LogEntry log : logs) {
-            prompt.append(String.format("[%s] %s: %s\n", 
-                log.getTimestamp(), log.getLogLevel(), log.getMessage()));
+            prompt.append(formatLogLine(log));
         }
         
         prompt.append("\nВерни JSON: { \"analysis\": \"человеческое объяснение\", \"relevant_logs\": [массив релевантных логов] }");
@@ -215,31 +282,110 @@ public class DeepSeekService {
         return prompt.toString();
     }
 
+    private String buildChunkSummaryPrompt(List<LogEntry> chunk) {
+        StringBuilder prompt = new StringBuilder();
+        prompt.append("Ты — senior DevOps инженер. Ниже фрагмент логов, упорядоченных по времени.\n");
+        prompt.append("Сожми его в краткую фактическую сводку, не теряя деталей, важных для расследования инцидентов:\n");
+        prompt.append("- Временной диапазон фрагмента\n");
+        prompt.append("- Ключевые события и их последовательность, с временем\n");
+        prompt.append("- Все ошибки и предупреждения с количеством повторов\n");
+        prompt.append("- Идентификаторы (id, traceId, requestId, userId и т.п.), участвующие в ошибках\n");
+        prompt.append("Не делай выводов сверх того, что есть в логах. Верни только текст сводки.\n\n");
+
+        prompt.append("Логи:\n");
+        for (LogEntry log : chunk) {
+            prompt.append(formatLogLine(log));
+        }
+        return prompt.toString();
+    }
+
+    private String buildSummaryMergePrompt(List<String> summaries) {
+        StringBuilder prompt = new StringBuilder();
+        prompt.append("Ты — senior DevOps инженер. Ниже сводки последовательных фрагментов логов, упорядоченные по времени.\n");
+        prompt.append("Объедини их в одну сводку того же формата: временной диапазон, ключевые события, ");
+        prompt.append("ошибки и предупреждения с количеством, идентификаторы. Верни только текст сводки.\n\n");
+        appendSummaries(prompt, summaries);
+        return prompt.toString();
+    }
+
+    private String buildSummaryAnalysisPrompt(String userQuery, List<String> summaries, int totalLogs,
+                                              String statsContext) {
+        StringBuilder prompt = new StringBuilder();
+        prompt.append("Ты — senior DevOps инженер с опытом анализа логов.\n");
+        prompt.append("По запросу пользователя найдено ").append(totalLogs);
+        prompt.append(" логов; они слишком объёмны для одного запроса, поэтому ниже даны сводки последовательных фрагментов.\n");
+        prompt.append("Анализируй их в контексте запроса пользователя:\n");
+        prompt.append("- Временные закономерности и корреляции\n");
+        prompt.append("- Последовательности событий\n");
+        prompt.append("- Уровни серьезности и эскалации\n\n");
+
+        prompt.append("Запрос пользователя: \"").append(userQuery).append("\"\n\n");
+        appendStatsContext(prompt, statsContext);
+        appendSummaries(prompt, summaries);
+
+        prompt.append("\nВерни JSON: { \"analysis\": \"человеческое объяснение\" }");
+        return prompt.toString();
+    }
+
+    // Aggregates over all ingested logs of the period, not only the matched ones
+    private static void appendStatsContext(StringBuilder prompt, String statsContext) {
+        if (statsContext != null && !statsContext.isBlank()) {
+            prompt.append("Статистика всего потока логов за этот период (приблизительная, по скетчам):\n");
+            prompt.append(statsContext).append("\n");
+        }
+    }
+
+    private static void appendSummaries(StringBuilder prompt, List<String> summaries) {
+        for (int i = 0; i < summaries.size(); i++) {
+            prompt.append("Фрагмент ").append(i + 1).append(":\n").append(summaries.get(i).trim()).append("\n\n");
+        }
+    }
+
     private String callDeepSeekApi(String prompt, String apiKey) {
-        WebClient webClient = webClientBuilder
-            .defaultHeader("Authorization", "Bearer " + apiKey)
-            .defaultHeader("Content-Type", "application/json")
-            .build();
+        try {
+            return callDeepSeekApiAsync(prompt, apiKey, DEFAULT_MAX_TOKENS).block();
+        } catch (Exception e) {
+            logger.error("Error calling DeepSeek API", e);
+            throw new RuntimeException("Failed to call DeepSeek API: " + e.getMessage());
+        }
+    }
 
+    private Mono<String> callDeepSeekApiAsync(String prompt, String apiKey, int maxTokens) {
         Map<String, Object> requestBody = new HashMap<>();
         requestBody.put("model", "deepseek-chat");
         requestBody.put("messages", List.of(
             Map.of("role", "user", "content", prompt)
         ));
-        requestBody.put("max_tokens", 4000);
+        requestBody.put("max_tokens", maxTokens);
         requestBody.put("temperature", 0.1);
 
-        try {
-            Mono<String> response = webClient.post()
-                .uri(DEEPSEEK_API_URL)
-                .bodyValue(requestBody)
-                .retrieve()
-                .bodyToMono(String.class);
+        // The key is a per-request header: the client is shared by concurrent chunk calls
+        return client().post()
+            .uri(apiUrl)
+            .header("Authorization", "Bearer " + apiKey)
+            .bodyValue(requestBody)
+            .retrieve()
+            .bodyToMono(String.class);
+    }
+
+    private WebClient client() {
+        WebClient client = webClient;
+        if (client == null) {
+            client = webClientBuilder.clone()
+                .defaultHeader("Content-Type", "application/json")
+                .build();
+            webClient = client;
+        }
+        return client;
+    }
 
-            return response.block();
+    private String extractContentFromResponse(String response) {
+        try {
+            JsonNode jsonNode = objectMapper.readTree(response);
+            return jsonNode.path("choices").get(0).path("message").path("content").asText();
         } catch (Exception e) {
-            logger.error("Error calling DeepSeek API", e);
-            throw new RuntimeException("Failed to call DeepSeek API: " + e.getMessage());
+            logger.error("Error extracting content from response", e);
+            throw new RuntimeException("Failed to extract content from response");
         }
     }
 
@@ -274,6 +420,40 @@ public class DeepSeekService {
         }
     }
 
+    private List<SqlCandidate> extractSqlCandidatesFromResponse(String response) {
+        List<SqlCandidate> candidates = new ArrayList<>();
+        String content;
+        try {
+            JsonNode jsonNode = objectMapper.readTree(response);
+            content = jsonNode.path("choices").get(0).path("message").path("content").asText();
+        } catch (Exception e) {
+            logger.error("Error extracting SQL candidates from response", e);
+            throw new RuntimeException("Failed to extract SQL candidates from response");
+        }
+
+        try {
+            int start = content.indexOf("{");
+            int end = content.lastIndexOf("}") + 1;
+            if (start >= 0 && end > start) {
+                JsonNode candidatesJson = objectMapper.readTree(content.substring(start, end)).path("candidates");
+                for (JsonNode candidate : candidatesJson) {
+                    String sql = candidate.path("sql").asText("").trim();
+                    if (!sql.isEmpty()) {
+                        candidates.add(new SqlCandidate(candidate.path("kind").asText("candidate"), sql));
+                    }
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("SQL candidates were not valid JSON, using the response as a single candidate");
+        }
+
+        // The model occasionally ignores the JSON format; treat the whole answer as one SQL query then
+        if (candidates.isEmpty()) {
+            candidates.add(new SqlCandidate("single", extractSqlFromResponse(response)));
+        }
+        return candidates;
+    }
+
     private String extractAnalysisFromResponse(String response) {
         try {
             JsonNode jsonNode = objectMapper.readTree(response);
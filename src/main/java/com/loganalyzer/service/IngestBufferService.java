@@ -0,0 +1,288 @@
+package com.loganalyzer.service;
+
+import com.loganalyzer.model.LogEntry;
+import com.loganalyzer.util.RingBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Write-behind ingest buffer. Accepted entries are queued in a bounded
+ * lock-free ring buffer and a dedicated writer thread persists them in
+ * group commits, flushing when a batch fills up or the flush interval expires.
+ * The writer only exists when write-behind or the network receivers are enabled
+ * (they have no synchronous path) and sleeps until a producer signals it.
+ */
+@Service
+public class IngestBufferService implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestBufferService.class);
+
+    // Stops after the web server so in-flight requests can still enqueue
+    public static final int PHASE = 100;
+
+    @Autowired
+    private LogBatchWriter logBatchWriter;
+
+    @Value("${log-analyzer.ingest.write-behind:false}")
+    private boolean writeBehind;
+
+    // The network receivers only ingest through this buffer, so they start it even without write-behind
+    @Value("${log-analyzer.receiver.enabled:false}")
+    private boolean receiverEnabled;
+
+    @Value("${log-analyzer.ingest.buffer-capacity:65536}")
+    private int bufferCapacity;
+
+    @Value("${log-analyzer.ingest.batch-size:500}")
+    private int batchSize;
+
+    @Value("${log-analyzer.ingest.flush-interval-ms:50}")
+    private long flushIntervalMs;
+
+    private RingBuffer<PendingEntry> buffer;
+    private volatile Thread writerThread;
+    private volatile boolean running;
+    // Set by stop() once no producer can still offer; the writer exits after draining what is left
+    private volatile boolean closed;
+    // Set by the writer before it parks; producers unpark it only when it is set
+    private volatile boolean writerParked;
+    // Producers between their running check and the end of their offer; stop() waits for them
+    private final AtomicInteger producersInFlight = new AtomicInteger();
+
+    private final Queue<Runnable> spaceListeners = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong committed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    public boolean isWriteBehindEnabled() {
+        return writeBehind;
+    }
+
+    // False when neither write-behind nor the receivers are enabled, or the buffer is stopping; submit() then always fails
+    public boolean isAccepting() {
+        return buffer != null && running;
+    }
+
+    /**
+     * Queue an entry for the next group commit.
+     * Returns null when the buffer is full; otherwise a future completed once the entry is committed.
+     */
+    public CompletableFuture<LogEntry> submit(LogEntry entry) {
+        producersInFlight.incrementAndGet();
+        try {
+            // Checked after registering as in flight, so stop() either sees this producer or rejects it
+            if (buffer == null || !running) {
+                rejected.incrementAndGet();
+                return null;
+            }
+            PendingEntry pending = new PendingEntry(entry);
+            if (!buffer.offer(pending)) {
+                rejected.incrementAndGet();
+                return null;
+            }
+            accepted.incrementAndGet();
+            if (writerParked) {
+                writerParked = false;
+                LockSupport.unpark(writerThread);
+            }
+            return pending.ack;
+        } finally {
+            producersInFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * Runs the callback once, on the writer thread, after the ring next has free space
+     * (immediately on the caller's thread if it has space now). Lets producers that
+     * must not block, such as network event loops, pause and resume instead of waiting.
+     */
+    public void onSpaceAvailable(Runnable callback) {
+        spaceListeners.add(callback);
+        // Re-checked after registering so a drain that ran just before is not missed
+        if (buffer == null || buffer.size() < buffer.capacity()) {
+            notifySpaceListeners();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("writeBehind", writeBehind);
+        stats.put("capacity", buffer != null ? buffer.capacity() : 0);
+        stats.put("buffered", buffer != null ? buffer.size() : 0);
+        stats.put("accepted", accepted.get());
+        stats.put("rejected", rejected.get());
+        stats.put("committed", committed.get());
+        stats.put("failed", failed.get());
+        stats.put("batches", batches.get());
+        return stats;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        closed = false;
+        if (!writeBehind && !receiverEnabled) {
+            return;
+        }
+        buffer = new RingBuffer<>(bufferCapacity);
+        writerThread = new Thread(this::runWriter, "log-ingest-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        logger.info("Ingest buffer started (capacity={}, batchSize={}, flushIntervalMs={})",
+            buffer.capacity(), batchSize, flushIntervalMs);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (writerThread == null) {
+            return;
+        }
+        // Producers that passed the running check finish their offer before the writer's final drain
+        while (producersInFlight.get() > 0) {
+            Thread.onSpinWait();
+        }
+        closed = true;
+        LockSupport.unpark(writerThread);
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.info("Ingest buffer stopped (committed={}, failed={})", committed.get(), failed.get());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    private void runWriter() {
+        List<PendingEntry> batch = new ArrayList<>(batchSize);
+        long flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        long batchStartedAt = 0;
+
+        while (!closed || buffer.size() > 0) {
+            int drained = buffer.drainTo(batch, batchSize - batch.size());
+            if (drained > 0) {
+                if (batch.size() == drained) {
+                    batchStartedAt = System.nanoTime();
+                }
+                notifySpaceListeners();
+            }
+
+            long waited = System.nanoTime() - batchStartedAt;
+            boolean full = batch.size() >= batchSize;
+            boolean expired = !batch.isEmpty() && waited >= flushIntervalNanos;
+            if (full || expired || (closed && !batch.isEmpty())) {
+                flush(batch);
+                batch.clear();
+            } else if (drained == 0) {
+                if (buffer.size() > 0) {
+                    // A producer claimed a slot but has not published it yet
+                    Thread.onSpinWait();
+                    continue;
+                }
+                writerParked = true;
+                // Re-checked after announcing the park so a concurrent offer either is seen here or unparks us
+                if (buffer.size() == 0 && !closed) {
+                    if (batch.isEmpty()) {
+                        LockSupport.park(this);
+                    } else {
+                        LockSupport.parkNanos(this, flushIntervalNanos - waited);
+                    }
+                }
+                writerParked = false;
+            }
+        }
+        if (!batch.isEmpty()) {
+            flush(batch);
+        }
+    }
+
+    private void notifySpaceListeners() {
+        Runnable listener;
+        while ((listener = spaceListeners.poll()) != null) {
+            try {
+                listener.run();
+            } catch (RuntimeException e) {
+                logger.warn("Ingest space listener failed", e);
+            }
+        }
+    }
+
+    private void flush(List<PendingEntry> batch) {
+        List<LogEntry> entries = new ArrayList<>(batch.size());
+        for (PendingEntry pending : batch) {
+            entries.add(pending.entry);
+        }
+        try {
+            logBatchWriter.writeBatch(entries);
+            committed.addAndGet(entries.size());
+            batches.incrementAndGet();
+            for (PendingEntry pending : batch) {
+                pending.ack.complete(pending.entry);
+            }
+        } catch (Exception e) {
+            if (batch.size() == 1) {
+                fail(batch.get(0), e);
+                return;
+            }
+            // The batch rolled back as a whole; retry row by row so only the offending entries are rejected
+            logger.warn("Failed to commit batch of {} log entries, retrying individually", entries.size(), e);
+            for (PendingEntry pending : batch) {
+                flushOne(pending);
+            }
+        }
+    }
+
+    private void flushOne(PendingEntry pending) {
+        try {
+            logBatchWriter.writeBatch(List.of(pending.entry));
+            committed.incrementAndGet();
+            batches.incrementAndGet();
+            pending.ack.complete(pending.entry);
+        } catch (Exception e) {
+            fail(pending, e);
+        }
+    }
+
+    private void fail(PendingEntry pending, Exception e) {
+        logger.error("Failed to commit log entry", e);
+        failed.incrementAndGet();
+        pending.ack.completeExceptionally(e);
+    }
+
+    private static class PendingEntry {
+        private final LogEntry entry;
+        private final CompletableFuture<LogEntry> ack = new CompletableFuture<>();
+
+        private PendingEntry(LogEntry entry) {
+            this.entry = entry;
+        }
+    }
+}
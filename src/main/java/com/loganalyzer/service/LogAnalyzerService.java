@@ -1,6 +1,7 @@
 package com.loganalyzer.service;
 
 import com.loganalyzer.dto.QueryResponse;
+import com.loganalyzer.dto.SqlCandidate;
 import com.loganalyzer.model.AppSetting;
 import com.loganalyzer.model.LogEntry;
 import com.loganalyzer.model.LogPattern;
@@ -10,7 +11,9 @@ import com.loganalyzer.repository.LogPatternRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.Query;
@@ -26,6 +29,9 @@ public class LogAnalyzerService {
 
     private static final Logger logger = LoggerFactory.getLogger(LogAnalyzerService.class);
     private static final String DEEPSEEK_API_KEY = "deepseek_api_key";
+    // Same rows as getRecentLogEntries(), for exporting a fallback result
+    private static final String RECENT_LOGS_SQL =
+        "SELECT id, timestamp, log_level, message FROM log_entries ORDER BY timestamp DESC LIMIT 50";
 
     @Autowired
     private LogPatternRepository logPatternRepository;
@@ -39,11 +45,48 @@ public class LogAnalyzerService {
     @Autowired
     private DeepSeekService deepSeekService;
 
+    @Autowired
+    private ChunkedAnalysisService chunkedAnalysisService;
+
+    @Autowired
+    private StreamStatsService streamStatsService;
+
     @Autowired
     private EntityManager entityManager;
 
+    @Autowired
+    private SpeculativeQueryExecutor speculativeQueryExecutor;
+
+    @Autowired
+    private TimeSlicedQueryExecutor timeSlicedQueryExecutor;
+
+    @Autowired
+    private SegmentIndexService segmentIndexService;
+
+    @Autowired
+    private LogEntryEventPublisher eventPublisher;
+
+    @Autowired
+    private LogPatternMatcher logPatternMatcher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private LogExportService exportService;
+
+    @Value("${log-analyzer.query.speculative:false}")
+    private boolean speculativeQueries;
+
+    @Value("${log-analyzer.sketches.prompt-context:false}")
+    private boolean sketchPromptContext;
+
     // Two-step log analysis process
     public QueryResponse processQuery(String userQuery) {
+        return processQuery(userQuery, null);
+    }
+
+    public QueryResponse processQuery(String userQuery, Boolean speculative) {
         try {
             // Get API key
             String apiKey = getDeepSeekApiKey();
@@ -51,27 +94,61 @@ public class LogAnalyzerService {
             // Get log patterns
             List<LogPattern> patterns = logPatternRepository.findAll();
             
-            // Step 1: Generate SQL query using DeepSeek
-            logger.info("Step 1: Generating SQL query for user request: {}", userQuery);
-            String sqlQuery = deepSeekService.generateSqlQuery(userQuery, patterns, apiKey);
-            logger.info("Generated SQL: {}", sqlQuery);
-            
-            // Step 1.5: Execute the generated SQL query against log_entries table
-            List<LogEntry> relevantLogs = executeLogQuery(sqlQuery);
+            List<LogEntry> relevantLogs;
+            String resultSql;
+            if (speculative != null ? speculative : speculativeQueries) {
+                // Step 1: Generate several SQL candidates and race them against log_entries
+                logger.info("Step 1: Generating SQL candidates for user request: {}", userQuery);
+                List<SqlCandidate> candidates = deepSeekService.generateSqlCandidates(userQuery, patterns, apiKey);
+                logger.info("Generated {} SQL candidates", candidates.size());
+                List<SqlCandidate> prunedCandidates = new ArrayList<>();
+                for (SqlCandidate candidate : candidates) {
+                    String sql = segmentIndexService.prune(SpeculativeQueryExecutor.cleanSql(candidate.getSql()));
+                    prunedCandidates.add(new SqlCandidate(candidate.getKind(), sql));
+                }
+                candidates = prunedCandidates;
+                SpeculativeQueryExecutor.Result result = speculativeQueryExecutor.execute(candidates);
+                if (result == null) {
+                    logger.warn("All SQL candidates failed, falling back to recent logs");
+                    relevantLogs = getRecentLogEntries();
+                    resultSql = RECENT_LOGS_SQL;
+                } else {
+                    relevantLogs = result.getLogs();
+                    resultSql = result.getSql();
+                }
+            } else {
+                // Step 1: Generate SQL query using DeepSeek
+                logger.info("Step 1: Generating SQL query for user request: {}", userQuery);
+                String sqlQuery = deepSeekService.generateSqlQuery(userQuery, patterns, apiKey);
+                logger.info("Generated SQL: {}", sqlQuery);
+                
+                // Step 1.5: Execute the generated SQL query against log_entries table
+                // Skip time segments whose Bloom filters rule out the searched message text
+                resultSql = segmentIndexService.prune(SpeculativeQueryExecutor.cleanSql(sqlQuery));
+                relevantLogs = executeLogQuery(resultSql);
+                if (relevantLogs == null) {
+                    // Fallback: return recent logs if SQL execution fails
+                    logger.warn("Falling back to recent logs due to SQL execution error");
+                    relevantLogs = getRecentLogEntries();
+                    resultSql = RECENT_LOGS_SQL;
+                }
+            }
             logger.info("Found {} relevant logs using generated SQL", relevantLogs.size());
+            // Lets the shown result be exported in full without another LLM round trip
+            String queryId = resultSql != null ? exportService.rememberQuery(resultSql) : null;
             
             // Check if no relevant logs were found
             if (relevantLogs.isEmpty()) {
                 String noResultsMessage = "К сожалению мне не удалось найти информацию по запросу. Попробуйте добавить больше деталей";
                 logger.info("No relevant logs found for query: {}", userQuery);
-                return new QueryResponse(noResultsMessage, relevantLogs);
+                return new QueryResponse(noResultsMessage, relevantLogs, queryId);
             }
             
             // Step 2: Analyze the logs using DeepSeek
             logger.info("Step 2: Analyzing logs with DeepSeek");
-            String analysis = deepSeekService.analyzeLogs(userQuery, relevantLogs, apiKey);
+            String analysis = chunkedAnalysisService.analyzeLogs(userQuery, relevantLogs, buildStatsContext(relevantLogs), apiKey);
             
-            return new QueryResponse(analysis, relevantLogs);
+            return new QueryResponse(analysis, relevantLogs, queryId);
             
         } catch (Exception e) {
             logger.error("Error processing query", e);
@@ -79,17 +156,27 @@ public class LogAnalyzerService {
         }
     }
 
+    // Identifier lookup on token boundaries, skipping time segments that cannot contain it
+    public List<LogEntry> searchLogEntries(String identifier, int limit) {
+        return segmentIndexService.search(identifier, limit);
+    }
+
     // Log Patterns CRUD
     public List<LogPattern> getAllLogPatterns() {
         return logPatternRepository.findAll();
     }
 
     public LogPattern saveLogPattern(LogPattern pattern) {
-        return logPatternRepository.save(pattern);
+        LogPattern saved = logPatternRepository.save(pattern);
+        logPatternMatcher.invalidate();
+        eventPublisher.patternsChanged();
+        return saved;
     }
 
     public void deleteLogPattern(Long id) {
         logPatternRepository.deleteById(id);
+        logPatternMatcher.invalidate();
+        eventPublisher.patternsChanged();
     }
 
     // API Key management
@@ -132,34 +219,58 @@ public class LogAnalyzerService {
         return logEntryRepository.findAllByOrderByTimestampDesc();
     }
 
+    public Optional<LogEntry> getLogEntry(Long id) {
+        return logEntryRepository.findById(id);
+    }
+
     public LogEntry saveLogEntry(LogEntry logEntry) {
         if (logEntry.getTimestamp() == null) {
             logEntry.setTimestamp(java.time.LocalDateTime.now());
         }
-        return logEntryRepository.save(logEntry);
+        // Lookup and save share one transaction that commits inside the change lock, before listeners are told
+        return eventPublisher.withChangeLock(() -> {
+            LogEntry[] previous = new LogEntry[1];
+            LogEntry saved = transactionTemplate.execute(status -> {
+                // Copy the previous version: the managed instance is overwritten by save()
+                previous[0] = logEntry.getId() == null ? null : logEntryRepository.findById(logEntry.getId())
+                    .map(existing -> new LogEntry(existing.getId(), existing.getTimestamp(),
+                        existing.getLogLevel(), existing.getMessage()))
+                    .orElse(null);
+                return logEntryRepository.save(logEntry);
+            });
+            if (previous[0] != null) {
+                eventPublisher.deleted(previous[0]);
+            }
+            eventPublisher.inserted(List.of(saved));
+            return saved;
+        });
     }
 
     public void deleteLogEntry(Long id) {
-        logEntryRepository.deleteById(id);
+        eventPublisher.withChangeLock(() -> {
+            Optional<LogEntry> existing = transactionTemplate.execute(status -> {
+                Optional<LogEntry> found = logEntryRepository.findById(id);
+                logEntryRepository.deleteById(id);
+                return found;
+            });
+            existing.ifPresent(entry -> eventPublisher.deleted(entry));
+            return null;
+        });
     }
 
     /**
-     * Execute the SQL query generated by DeepSeek against the log_entries table
+     * Execute the cleaned SQL query generated by DeepSeek against the log_entries table; null when it fails
      */
-    private List<LogEntry> executeLogQuery(String sqlQuery) {
+    private List<LogEntry> executeLogQuery(String cleanSql) {
         try {
-            // Clean up the SQL query - remove any markdown formatting
-            String cleanSql = sqlQuery.trim();
-            if (cleanSql.startsWith("```sql")) {
-                cleanSql = cleanSql.substring(6);
-            }
-            if (cleanSql.endsWith("```")) {
-                cleanSql = cleanSql.substring(0, cleanSql.length() - 3);
-            }
-            cleanSql = cleanSql.trim();
-            
             logger.info("Executing SQL query: {}", cleanSql);
             
+            // Filter-style queries over large tables can be split into parallel time slices
+            List<LogEntry> slicedLogs = timeSlicedQueryExecutor.tryExecute(cleanSql);
+            if (slicedLogs != null) {
+                return slicedLogs;
+            }
+            
             // Execute native SQL query
             Query nativeQuery = entityManager.createNativeQuery(cleanSql);
             List<Object[]> results = nativeQuery.getResultList();
@@ -198,12 +309,30 @@ public class LogAnalyzerService {
             return logEntries;
             
         } catch (Exception e) {
-            logger.error("Error executing SQL query: {}", sqlQuery, e);
-            
-            // Fallback: return recent logs if SQL execution fails
-            logger.warn("Falling back to recent logs due to SQL execution error");
-            List<LogEntry> fallbackLogs = logEntryRepository.findAllByOrderByTimestampDesc();
-            return fallbackLogs.size() > 50 ? fallbackLogs.subList(0, 50) : fallbackLogs;
+            logger.error("Error executing SQL query: {}", cleanSql, e);
+            return null;
         }
     }
+
+    // Streaming-sketch digest for the time span of the matched logs
+    private String buildStatsContext(List<LogEntry> logs) {
+        if (!sketchPromptContext) {
+            return "";
+        }
+        LocalDateTime from = null;
+        LocalDateTime to = null;
+        for (LogEntry log : logs) {
+            LocalDateTime timestamp = log.getTimestamp();
+            if (timestamp != null) {
+                from = from == null || timestamp.isBefore(from) ? timestamp : from;
+                to = to == null || timestamp.isAfter(to) ? timestamp : to;
+            }
+        }
+        return from != null ? streamStatsService.describe(from, to.plusSeconds(1)) : "";
+    }
+
+    private List<LogEntry> getRecentLogEntries() {
+        List<LogEntry> fallbackLogs = logEntryRepository.findAllByOrderByTimestampDesc();
+        return fallbackLogs.size() > 50 ? fallbackLogs.subList(0, 50) : fallbackLogs;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,110 @@
+package com.loganalyzer.service;
+
+import com.loganalyzer.model.LogEntry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Persists log entries as a single JDBC batch inside one transaction.
+ * Used by every bulk ingest route so a group of entries costs one commit.
+ * One row breaking a constraint rolls back the whole batch, so callers
+ * check entries with {@link #validationError} before queueing them.
+ */
+@Service
+public class LogBatchWriter {
+
+    // Matches the message column length on LogEntry
+    public static final int MAX_MESSAGE_LENGTH = 2000;
+
+    private static final String INSERT_SQL =
+        "INSERT INTO log_entries (timestamp, log_level, message) VALUES (?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private LogEntryEventPublisher eventPublisher;
+
+    /**
+     * Returns why the entry would violate a log_entries constraint, or null if it can be written.
+     */
+    public static String validationError(LogEntry entry) {
+        if (entry == null) {
+            return "Log entry is required";
+        }
+        if (entry.getLogLevel() == null || entry.getLogLevel().isBlank()) {
+            return "logLevel is required";
+        }
+        if (entry.getMessage() == null) {
+            return "message is required";
+        }
+        if (entry.getMessage().length() > MAX_MESSAGE_LENGTH) {
+            return "message must be at most " + MAX_MESSAGE_LENGTH + " characters";
+        }
+        return null;
+    }
+
+    public List<LogEntry> writeBatch(List<LogEntry> entries) {
+        if (entries.isEmpty()) {
+            return entries;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (LogEntry entry : entries) {
+            if (entry.getTimestamp() == null) {
+                entry.setTimestamp(now);
+            }
+        }
+
+        return eventPublisher.withChangeLock(() -> {
+            insert(entries);
+            eventPublisher.inserted(entries);
+            return entries;
+        });
+    }
+
+    private void insert(List<LogEntry> entries) {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+            connection -> connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    LogEntry entry = entries.get(i);
+                    ps.setTimestamp(1, Timestamp.valueOf(entry.getTimestamp()));
+                    ps.setString(2, entry.getLogLevel());
+                    ps.setString(3, entry.getMessage());
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return entries.size();
+                }
+            },
+            keyHolder));
+
+        // Generated keys come back in insert order
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < keys.size() && i < entries.size(); i++) {
+            Object id = keys.get(i).values().iterator().next();
+            if (id instanceof Number) {
+                entries.get(i).setId(((Number) id).longValue());
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.loganalyzer.service;
+
+import com.loganalyzer.model.LogEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Fans out committed log_entries changes to every {@link LogEntryListener}.
+ * Writers commit and notify inside {@link #withChangeLock}; a listener that
+ * rebuilds from the table runs in {@link #runExclusive} so no row is both
+ * scanned and notified. A failing listener is logged and never fails ingest.
+ */
+@Service
+public class LogEntryEventPublisher {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogEntryEventPublisher.class);
+
+    // Resolved lazily: listeners may depend on this publisher for runExclusive
+    @Autowired
+    private ObjectProvider<LogEntryListener> listeners;
+
+    private final ReentrantReadWriteLock changeLock = new ReentrantReadWriteLock();
+
+    public <T> T withChangeLock(Supplier<T> change) {
+        changeLock.readLock().lock();
+        try {
+            return change.get();
+        } finally {
+            changeLock.readLock().unlock();
+        }
+    }
+
+    public void runExclusive(Runnable rebuild) {
+        changeLock.writeLock().lock();
+        try {
+            rebuild.run();
+        } finally {
+            changeLock.writeLock().unlock();
+        }
+    }
+
+    public void inserted(List<LogEntry> entries) {
+        if (!entries.isEmpty()) {
+            notifyListeners("insert", listener -> listener.onInserted(entries));
+        }
+    }
+
+    public void deleted(LogEntry entry) {
+        notifyListeners("delete", listener -> listener.onDeleted(entry));
+    }
+
+    public void patternsChanged() {
+        notifyListeners("pattern change", LogEntryListener::onPatternsChanged);
+    }
+
+    public void cleared() {
+        notifyListeners("clear", LogEntryListener::onCleared);
+    }
+
+    private void notifyListeners(String event, Consumer<LogEntryListener> callback) {
+        listeners.orderedStream().forEach(listener -> {
+            try {
+                callback.accept(listener);
+            } catch (Exception e) {
+                logger.error("Log entry listener {} failed on {}", listener.getClass().getSimpleName(), event, e);
+            }
+        });
+    }
+}
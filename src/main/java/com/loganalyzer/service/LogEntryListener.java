@@ -0,0 +1,24 @@
+package com.loganalyzer.service;
+
+import com.loganalyzer.model.LogEntry;
+
+import java.util.List;
+
+/**
+ * Receives every change to log_entries so in-memory structures derived from
+ * the raw rows stay in sync. Callbacks run after the change is committed.
+ */
+public interface LogEntryListener {
+
+    void onInserted(List<LogEntry> entries);
+
+    void onDeleted(LogEntry entry);
+
+    // Log patterns were added, changed or removed
+    default void onPatternsChanged() {
+    }
+
+    // Every row was removed, including rows already announced through onInserted
+    default void onCleared() {
+    }
+}
@@ -0,0 +1,371 @@
+package com.loganalyzer.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Streams log rows from a JDBC cursor straight into gzip-compressed NDJSON or CSV.
+ * Rows are written as they are read, so memory use does not grow with the export size.
+ */
+@Service
+public class LogExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogExportService.class);
+
+    // Field names match the LogEntry JSON properties; positions match the (id, timestamp, log_level, message) shape
+    public static final List<String> FIELDS = List.of("id", "timestamp", "logLevel", "message");
+
+    private static final int FETCH_SIZE = 1000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String TIMEOUT_INTERCEPTOR = LogExportService.class.getName() + ".timeout";
+
+    public enum Format {
+        NDJSON("ndjson"), CSV("csv");
+
+        private final String extension;
+
+        Format(String extension) {
+            this.extension = extension;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public static Format fromName(String name) {
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(name)) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("Unknown export format '" + name + "', expected ndjson or csv");
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${log-analyzer.export.remembered-queries:1000}")
+    private int rememberedQueries;
+
+    @Value("${log-analyzer.export.timeout-ms:3600000}")
+    private long timeoutMs;
+
+    // SQL behind recent /api/query results, least recently used evicted first
+    private final Map<String, String> queries = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+            return size() > rememberedQueries;
+        }
+    };
+
+    /**
+     * Remember the SQL that produced a query result and return the id used to export it later.
+     */
+    public String rememberQuery(String sql) {
+        String queryId = UUID.randomUUID().toString();
+        synchronized (queries) {
+            queries.put(queryId, sql);
+        }
+        return queryId;
+    }
+
+    /**
+     * SQL remembered under the id, or null when it is unknown or has been evicted.
+     */
+    public String rememberedQuery(String queryId) {
+        synchronized (queries) {
+            return queries.get(queryId);
+        }
+    }
+
+    /**
+     * Give this request's StreamingResponseBody the export timeout instead of the default async timeout.
+     */
+    public void applyExportTimeout(NativeWebRequest webRequest) {
+        WebAsyncUtils.getAsyncManager(webRequest).registerCallableInterceptor(TIMEOUT_INTERCEPTOR,
+            new CallableProcessingInterceptor() {
+                @Override
+                public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                    // Called before the async request starts, while the timeout can still be changed
+                    if (request instanceof AsyncWebRequest asyncRequest) {
+                        asyncRequest.setTimeout(timeoutMs);
+                    }
+                }
+            });
+    }
+
+    /**
+     * Parse a comma-separated projection; null or blank selects every field.
+     */
+    public List<String> resolveFields(String fields) {
+        if (fields == null || fields.isBlank()) {
+            return FIELDS;
+        }
+        List<String> resolved = new ArrayList<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (!FIELDS.contains(name)) {
+                throw new IllegalArgumentException("Unknown field '" + name + "', expected one of " + FIELDS);
+            }
+            if (!resolved.contains(name)) {
+                resolved.add(name);
+            }
+        }
+        return resolved;
+    }
+
+    // Export endpoints return StreamingResponseBody, so errors are streamed as the usual JSON error map
+    public StreamingResponseBody errorBody(String message) {
+        return out -> objectMapper.writeValue(out, Map.of("error", message));
+    }
+
+    /**
+     * Export log_entries filtered by time range and level, ordered by timestamp.
+     */
+    public long exportRange(OutputStream out, Format format, List<String> fields,
+                            LocalDateTime from, LocalDateTime to, String level) throws IOException {
+        StringBuilder sql = new StringBuilder("SELECT id, timestamp, log_level, message FROM log_entries WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+        if (from != null) {
+            sql.append(" AND timestamp >= ?");
+            params.add(from);
+        }
+        if (to != null) {
+            sql.append(" AND timestamp <= ?");
+            params.add(to);
+        }
+        if (level != null && !level.isBlank()) {
+            sql.append(" AND log_level = ?");
+            params.add(level);
+        }
+        sql.append(" ORDER BY timestamp");
+        return export(out, format, fields, sql.toString(), params.toArray());
+    }
+
+    /**
+     * Export the rows of a remembered query that returns (id, timestamp, log_level, message).
+     */
+    public long exportQuery(OutputStream out, Format format, List<String> fields, String sql) throws IOException {
+        return export(out, format, fields, sql, new Object[0]);
+    }
+
+    private long export(OutputStream out, Format format, List<String> fields, String sql, Object[] params)
+            throws IOException {
+        long started = System.currentTimeMillis();
+        int[] columns = fields.stream().mapToInt(FIELDS::indexOf).toArray();
+        GZIPOutputStream gzip = new GZIPOutputStream(out, BUFFER_SIZE);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(gzip, StandardCharsets.UTF_8), BUFFER_SIZE);
+        RowWriter rowWriter = format == Format.NDJSON ? new NdjsonRowWriter(writer) : new CsvRowWriter(writer, fields);
+
+        rowWriter.begin();
+        Long rows = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            boolean lazy = enableLazyExecution(connection, true);
+            try (PreparedStatement ps = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                ps.setFetchSize(FETCH_SIZE);
+                for (int i = 0; i < params.length; i++) {
+                    ps.setObject(i + 1, params[i]);
+                }
+                long count = 0;
+                Object[] values = new Object[FIELDS.size()];
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.getMetaData().getColumnCount() < FIELDS.size()) {
+                        throw new SQLException("Export query must return id, timestamp, log_level, message");
+                    }
+                    while (rs.next()) {
+                        for (int column : columns) {
+                            values[column] = readColumn(rs, column);
+                        }
+                        rowWriter.write(values, columns);
+                        count++;
+                    }
+                } catch (IOException e) {
+                    // The client went away; stop reading the cursor
+                    throw new SQLException("Export stream closed", e);
+                }
+                return count;
+            } finally {
+                if (lazy) {
+                    enableLazyExecution(connection, false);
+                }
+            }
+        });
+
+        long total = rows != null ? rows : 0;
+        rowWriter.end(total);
+        writer.flush();
+        gzip.finish();
+        gzip.flush();
+        logger.info("Exported {} rows as {} in {} ms", total, format.getExtension(), System.currentTimeMillis() - started);
+        return total;
+    }
+
+    private Object readColumn(ResultSet rs, int column) throws SQLException {
+        switch (column) {
+            case 0:
+                return rs.getObject(1) instanceof Number ? rs.getLong(1) : null;
+            case 1:
+                Object timestamp = rs.getObject(2);
+                if (timestamp instanceof Timestamp) {
+                    return ((Timestamp) timestamp).toLocalDateTime();
+                }
+                return timestamp instanceof LocalDateTime ? timestamp : null;
+            default:
+                return rs.getString(column + 1);
+        }
+    }
+
+    // H2 materializes result sets unless lazy execution is on; other databases stream via fetch size
+    private boolean enableLazyExecution(Connection connection, boolean enable) throws SQLException {
+        if (!"H2".equals(connection.getMetaData().getDatabaseProductName())) {
+            return false;
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET LAZY_QUERY_EXECUTION " + (enable ? "TRUE" : "FALSE"));
+        }
+        return true;
+    }
+
+    private interface RowWriter {
+        void begin() throws IOException;
+
+        void write(Object[] values, int[] columns) throws IOException;
+
+        void end(long rows) throws IOException;
+    }
+
+    private class NdjsonRowWriter implements RowWriter {
+        private final String[] names;
+        private final JsonGenerator generator;
+
+        private NdjsonRowWriter(Writer writer) throws IOException {
+            this.names = FIELDS.toArray(new String[0]);
+            this.generator = objectMapper.getFactory().createGenerator(writer);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Rows are separated by newlines only, not the default space between root values
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void begin() {
+        }
+
+        @Override
+        public void write(Object[] values, int[] columns) throws IOException {
+            generator.writeStartObject();
+            for (int column : columns) {
+                Object value = values[column];
+                if (value == null) {
+                    generator.writeNullField(names[column]);
+                } else if (value instanceof Long) {
+                    generator.writeNumberField(names[column], (Long) value);
+                } else if (value instanceof LocalDateTime) {
+                    generator.writeStringField(names[column], DateTimeFormatter.ISO_LOCAL_DATE_TIME.format((LocalDateTime) value));
+                } else {
+                    generator.writeStringField(names[column], value.toString());
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void end(long rows) throws IOException {
+            generator.writeStartObject();
+            generator.writeObjectFieldStart("_trailer");
+            generator.writeNumberField("rows", rows);
+            generator.writeEndObject();
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+            generator.flush();
+        }
+    }
+
+    private static class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+        private final List<String> fields;
+
+        private CsvRowWriter(Writer writer, List<String> fields) {
+            this.writer = writer;
+            this.fields = fields;
+        }
+
+        @Override
+        public void begin() throws IOException {
+            writer.write(String.join(",", fields));
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(Object[] values, int[] columns) throws IOException {
+            for (int i = 0; i < columns.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                Object value = values[columns[i]];
+                if (value instanceof LocalDateTime) {
+                    writer.write(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format((LocalDateTime) value));
+                } else if (value != null) {
+                    writeEscaped(value.toString());
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        // The trailer is a comment line, which most CSV readers can be told to skip
+        @Override
+        public void end(long rows) throws IOException {
+            writer.write("# rows=" + rows + "\r\n");
+        }
+
+        private void writeEscaped(String value) throws IOException {
+            boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.loganalyzer.service;
+
+import com.loganalyzer.model.LogPattern;
+import com.loganalyzer.repository.LogPatternRepository;
+import com.loganalyzer.util.LogTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Attributes log messages to the LogPattern they were produced from.
+ * Templates are compiled once and reloaded after patterns change. A load that
+ * overlaps an invalidation is used for that call but not kept, so a pattern
+ * change is never masked by a list read before it.
+ */
+@Service
+public class LogPatternMatcher {
+
+    @Autowired
+    private LogPatternRepository logPatternRepository;
+
+    private volatile List<CompiledPattern> compiled;
+    // Bumped by every invalidation; only written while holding this matcher's lock
+    private volatile long generation;
+
+    /**
+     * Id of the most specific matching pattern, or null when no pattern matches.
+     */
+    public Long match(String message) {
+        for (CompiledPattern pattern : getCompiled()) {
+            if (pattern.template.matches(message)) {
+                return pattern.id;
+            }
+        }
+        return null;
+    }
+
+    public synchronized void invalidate() {
+        generation++;
+        compiled = null;
+    }
+
+    private List<CompiledPattern> getCompiled() {
+        List<CompiledPattern> current = compiled;
+        if (current == null) {
+            long loadedGeneration = generation;
+            current = new ArrayList<>();
+            for (LogPattern pattern : logPatternRepository.findAll()) {
+                if (pattern.getLogTemplate() != null) {
+                    current.add(new CompiledPattern(pattern.getId(), LogTemplate.parse(pattern.getLogTemplate())));
+                }
+            }
+            current.sort(Comparator.comparingInt((CompiledPattern p) -> p.template.getLiteralLength()).reversed());
+            synchronized (this) {
+                if (generation == loadedGeneration) {
+                    compiled = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private static class CompiledPattern {
+        private final Long id;
+        private final LogTemplate template;
+
+        private CompiledPattern(Long id, LogTemplate template) {
+            this.id = id;
+            this.template = template;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.loganalyzer.service;
+
+import com.loganalyzer.model.LogEntry;
+import com.loganalyzer.util.SyslogParser;
+import io.netty.channel.Channel;
+import io.netty.handler.codec.LineBasedFrameDecoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import reactor.netty.DisposableChannel;
+import reactor.netty.tcp.TcpServer;
+import reactor.netty.udp.UdpServer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Network log receivers on reactor-netty: syslog over UDP and TCP, and
+ * newline-delimited raw lines over TCP. Frames are decoded straight from
+ * Netty's pooled buffers and handed to the write-behind ingest buffer.
+ * Nothing on the event loop blocks: UDP frames are dropped when the buffer is
+ * full, while a TCP connection that hits a full buffer stops reading (auto-read
+ * off) until the writer frees space, so TCP flow control holds the sender back.
+ */
+@Service
+public class LogReceiverService implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogReceiverService.class);
+
+    @Autowired
+    private IngestBufferService ingestBuffer;
+
+    @Value("${log-analyzer.receiver.enabled:false}")
+    private boolean enabled;
+
+    @Value("${log-analyzer.receiver.host:0.0.0.0}")
+    private String host;
+
+    @Value("${log-analyzer.receiver.syslog-udp-port:5514}")
+    private int syslogUdpPort;
+
+    @Value("${log-analyzer.receiver.syslog-tcp-port:5514}")
+    private int syslogTcpPort;
+
+    @Value("${log-analyzer.receiver.raw-tcp-port:5515}")
+    private int rawTcpPort;
+
+    @Value("${log-analyzer.receiver.max-line-length:8192}")
+    private int maxLineLength;
+
+    private final List<DisposableChannel> channels = new ArrayList<>();
+    private volatile boolean running;
+
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        if (syslogUdpPort > 0) {
+            channels.add(UdpServer.create()
+                .host(host)
+                .port(syslogUdpPort)
+                .handle((inbound, outbound) -> inbound.receive()
+                    .doOnNext(frame -> acceptDatagram(frame.toString(StandardCharsets.UTF_8)))
+                    .then())
+                .bindNow());
+            logger.info("Syslog UDP receiver listening on {}:{}", host, syslogUdpPort);
+        }
+        if (syslogTcpPort > 0) {
+            channels.add(bindTcp(syslogTcpPort, true));
+            logger.info("Syslog TCP receiver listening on {}:{}", host, syslogTcpPort);
+        }
+        if (rawTcpPort > 0) {
+            channels.add(bindTcp(rawTcpPort, false));
+            logger.info("Raw line TCP receiver listening on {}:{}", host, rawTcpPort);
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        for (DisposableChannel channel : channels) {
+            channel.disposeNow();
+        }
+        channels.clear();
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Stops before the ingest buffer so every accepted frame still gets flushed
+    @Override
+    public int getPhase() {
+        return IngestBufferService.PHASE + 100;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("received", received.get());
+        stats.put("dropped", dropped.get());
+        return stats;
+    }
+
+    private DisposableChannel bindTcp(int port, boolean syslog) {
+        return TcpServer.create()
+            .host(host)
+            .port(port)
+            .doOnConnection(connection -> connection.addHandlerLast(
+                new LineBasedFrameDecoder(maxLineLength, true, false)))
+            .handle((inbound, outbound) -> {
+                TcpConnectionState[] state = new TcpConnectionState[1];
+                inbound.withConnection(connection -> state[0] = new TcpConnectionState(connection.channel()));
+                return inbound.receive()
+                    .doOnNext(frame -> state[0].accept(parse(frame.toString(StandardCharsets.UTF_8), syslog)))
+                    .then();
+            })
+            .bindNow();
+    }
+
+    private void acceptDatagram(String frame) {
+        LogEntry entry = parse(frame, true);
+        if (entry != null && ingestBuffer.submit(entry) == null) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    private LogEntry parse(String line, boolean syslog) {
+        if (line.isEmpty()) {
+            return null;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LogEntry entry = syslog ? SyslogParser.parseSyslog(line, now) : SyslogParser.parseRaw(line, now);
+        if (entry != null) {
+            received.incrementAndGet();
+        }
+        return entry;
+    }
+
+    /**
+     * Per-connection backpressure, only touched on the channel's event loop. When the ingest
+     * buffer is full the connection stops reading and queues the lines the frame decoder has
+     * already split from the last read; once the writer frees space they are resubmitted and
+     * reading resumes. Lines still queued when the connection closes are submitted all the same.
+     */
+    private class TcpConnectionState {
+        private final Channel channel;
+        private final Deque<LogEntry> pending = new ArrayDeque<>();
+
+        private TcpConnectionState(Channel channel) {
+            this.channel = channel;
+        }
+
+        private void accept(LogEntry entry) {
+            if (entry == null) {
+                return;
+            }
+            if (!ingestBuffer.isAccepting()) {
+                dropped.incrementAndGet();
+                return;
+            }
+            if (pending.isEmpty() && ingestBuffer.submit(entry) != null) {
+                return;
+            }
+            pending.add(entry);
+            if (pending.size() == 1) {
+                channel.config().setAutoRead(false);
+                waitForSpace();
+            }
+        }
+
+        private void waitForSpace() {
+            ingestBuffer.onSpaceAvailable(() -> channel.eventLoop().execute(this::resume));
+        }
+
+        private void resume() {
+            while (!pending.isEmpty()) {
+                if (!ingestBuffer.isAccepting()) {
+                    dropped.addAndGet(pending.size());
+                    pending.clear();
+                    break;
+                }
+                if (ingestBuffer.submit(pending.peek()) == null) {
+                    waitForSpace();
+                    return;
+                }
+                pending.poll();
+            }
+            channel.config().setAutoRead(true);
+        }
+    }
+}
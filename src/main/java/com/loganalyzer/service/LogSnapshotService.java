@@ -0,0 +1,469 @@
+package com.loganalyzer.service;
+
+import com.loganalyzer.model.LogEntry;
+import com.loganalyzer.model.LogPattern;
+import com.loganalyzer.repository.LogPatternRepository;
+import com.loganalyzer.util.MappedFileReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Snapshots log_entries and log_patterns to a compact checksummed binary file
+ * and restores them on startup, so a restart does not require re-ingesting.
+ *
+ * File layout: header (magic, version, created-at), patterns, then entry records
+ * with delta-encoded ids and timestamp seconds, the timestamp's nanoseconds and an
+ * inline level dictionary, an end marker with the row count, and a CRC32 trailer
+ * over everything before it. Version 1 files, with millisecond timestamps, still restore.
+ *
+ * The dump runs in one read-only repeatable-read transaction, so patterns and
+ * entries come from the same point in time. On H2 the restore bulk-loads each
+ * chunk of decoded rows through a temporary CSV file and
+ * {@code INSERT ... DIRECT SELECT FROM CSVREAD}; other databases get batched inserts.
+ */
+@Service
+public class LogSnapshotService implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(LogSnapshotService.class);
+
+    private static final int MAGIC = 0x564C4153; // "VLAS"
+    private static final int VERSION = 2;
+    // Timestamps as epoch milliseconds instead of seconds plus nanoseconds
+    private static final int VERSION_MILLIS = 1;
+    private static final int RECORD_ENTRY = 1;
+    private static final int RECORD_END = 0;
+    private static final int RESTORE_BATCH_SIZE = 10_000;
+    private static final int BULK_LOAD_ROWS = 100_000;
+    private static final DateTimeFormatter CSV_TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSSSSSSSS");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private LogPatternRepository logPatternRepository;
+
+    @Autowired
+    private LogPatternMatcher logPatternMatcher;
+
+    @Autowired
+    private LogEntryEventPublisher eventPublisher;
+
+    @Value("${log-analyzer.snapshot.enabled:false}")
+    private boolean enabled;
+
+    @Value("${log-analyzer.snapshot.path:data/log-analyzer.snapshot}")
+    private String snapshotPath;
+
+    private volatile boolean running;
+
+    // Runs before the ingest buffer and web server start, so the app is only ready once data is back
+    @Override
+    public void start() {
+        running = true;
+        if (!enabled || !Files.exists(Paths.get(snapshotPath))) {
+            return;
+        }
+        try {
+            restoreSnapshot();
+        } catch (Exception e) {
+            logger.error("Failed to restore snapshot from {}, starting with empty tables", snapshotPath, e);
+            // Chunks restored before the failure were already announced, so derived state is reset too
+            eventPublisher.runExclusive(() -> {
+                jdbcTemplate.execute("TRUNCATE TABLE log_entries RESTART IDENTITY");
+                jdbcTemplate.execute("TRUNCATE TABLE log_patterns RESTART IDENTITY");
+                logPatternMatcher.invalidate();
+                eventPublisher.cleared();
+            });
+        }
+    }
+
+    // Runs after the ingest buffer has flushed its last batch
+    @Override
+    public void stop() {
+        running = false;
+        if (!enabled) {
+            return;
+        }
+        try {
+            createSnapshot();
+        } catch (Exception e) {
+            logger.error("Failed to write shutdown snapshot to {}", snapshotPath, e);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    @Scheduled(fixedDelayString = "${log-analyzer.snapshot.interval-ms:300000}",
+               initialDelayString = "${log-analyzer.snapshot.interval-ms:300000}")
+    public void scheduledSnapshot() {
+        if (!enabled || !running) {
+            return;
+        }
+        try {
+            createSnapshot();
+        } catch (Exception e) {
+            logger.error("Periodic snapshot failed", e);
+        }
+    }
+
+    public synchronized Map<String, Object> createSnapshot() throws IOException {
+        long started = System.currentTimeMillis();
+        Path target = Paths.get(snapshotPath).toAbsolutePath();
+        Files.createDirectories(target.getParent());
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+
+        TransactionTemplate readSnapshot = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        readSnapshot.setReadOnly(true);
+        readSnapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        long[] counts = readSnapshot.execute(status -> {
+            try {
+                return writeSnapshotFile(temp, started);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("path", target.toString());
+        result.put("rows", counts[0]);
+        result.put("patterns", counts[1]);
+        result.put("bytes", Files.size(target));
+        result.put("durationMs", System.currentTimeMillis() - started);
+        logger.info("Snapshot written: {}", result);
+        return result;
+    }
+
+    // Returns the entry and pattern counts
+    private long[] writeSnapshotFile(Path temp, long started) throws IOException {
+        long rows;
+        List<LogPattern> patterns = logPatternRepository.findAll();
+        try (OutputStream file = new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16)) {
+            CRC32 crc = new CRC32();
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(file, crc));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(started);
+
+            writeVarLong(out, patterns.size());
+            for (LogPattern pattern : patterns) {
+                writeVarLong(out, pattern.getId());
+                writeString(out, pattern.getLogLevel());
+                writeString(out, pattern.getLogTemplate());
+            }
+
+            rows = writeEntries(out);
+            out.writeByte(RECORD_END);
+            writeVarLong(out, rows);
+            out.flush();
+
+            new DataOutputStream(file).writeLong(crc.getValue());
+        }
+        return new long[] {rows, patterns.size()};
+    }
+
+    public synchronized Map<String, Object> restoreSnapshot() throws IOException {
+        long started = System.currentTimeMillis();
+        Long existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM log_entries", Long.class);
+        if (existing != null && existing > 0) {
+            throw new IllegalStateException("log_entries is not empty, refusing to restore over existing data");
+        }
+
+        Path source = Paths.get(snapshotPath).toAbsolutePath();
+        Path csv = isH2() ? Files.createTempFile(source.getParent(), "restore", ".csv") : null;
+        int chunkSize = csv != null ? BULK_LOAD_ROWS : RESTORE_BATCH_SIZE;
+        long rows = 0;
+        int patternCount;
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 24) {
+                throw new IOException("Snapshot file is truncated: " + source);
+            }
+            ByteBuffer trailer = ByteBuffer.allocate(8);
+            channel.read(trailer, size - 8);
+            trailer.flip();
+            try (MappedFileReader reader = new MappedFileReader(channel, size - 8)) {
+                if (reader.checksum(size - 8) != trailer.getLong()) {
+                    throw new IOException("Snapshot checksum mismatch: " + source);
+                }
+                int version = reader.readInt() == MAGIC ? reader.readInt() : -1;
+                if (version != VERSION && version != VERSION_MILLIS) {
+                    throw new IOException("Unsupported snapshot format: " + source);
+                }
+                reader.readLong();
+
+                patternCount = (int) reader.readVarLong();
+                List<LogPattern> patterns = new ArrayList<>(patternCount);
+                for (int i = 0; i < patternCount; i++) {
+                    patterns.add(new LogPattern(reader.readVarLong(), readString(reader), readString(reader)));
+                }
+                insertPatterns(patterns);
+                logPatternMatcher.invalidate();
+
+                List<String> levels = new ArrayList<>();
+                List<LogEntry> chunk = new ArrayList<>(chunkSize);
+                long id = 0;
+                long timestamp = 0;
+                while (reader.readByte() == RECORD_ENTRY) {
+                    id += reader.readZigZagLong();
+                    timestamp += reader.readZigZagLong();
+                    LocalDateTime entryTimestamp = version == VERSION_MILLIS
+                        ? fromEpochMillis(timestamp)
+                        : LocalDateTime.ofEpochSecond(timestamp, (int) reader.readVarLong(), ZoneOffset.UTC);
+                    int levelCode = (int) reader.readVarLong();
+                    if (levelCode == levels.size()) {
+                        levels.add(readString(reader));
+                    }
+                    String message = readString(reader);
+                    chunk.add(new LogEntry(id, entryTimestamp, levels.get(levelCode), message));
+                    if (chunk.size() == chunkSize) {
+                        insertEntries(chunk, csv);
+                        rows += chunk.size();
+                        chunk.clear();
+                    }
+                }
+                insertEntries(chunk, csv);
+                rows += chunk.size();
+
+                long expected = reader.readVarLong();
+                if (expected != rows) {
+                    throw new IOException("Snapshot row count mismatch: expected " + expected + ", read " + rows);
+                }
+            }
+        } finally {
+            if (csv != null) {
+                Files.deleteIfExists(csv);
+            }
+        }
+
+        restartIdentity("log_entries");
+        restartIdentity("log_patterns");
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("path", source.toString());
+        result.put("rows", rows);
+        result.put("patterns", patternCount);
+        result.put("durationMs", System.currentTimeMillis() - started);
+        logger.info("Snapshot restored: {}", result);
+        return result;
+    }
+
+    private long writeEntries(DataOutputStream out) {
+        Map<String, Integer> levels = new HashMap<>();
+        long[] state = new long[3]; // previous id, previous timestamp second, row count
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                "SELECT id, timestamp, log_level, message FROM log_entries ORDER BY id");
+            ps.setFetchSize(RESTORE_BATCH_SIZE);
+            return ps;
+        }, (ResultSet rs) -> {
+            try {
+                long id = rs.getLong(1);
+                LocalDateTime timestamp = rs.getObject(2, LocalDateTime.class);
+                long second = timestamp.toEpochSecond(ZoneOffset.UTC);
+                String level = rs.getString(3);
+
+                out.writeByte(RECORD_ENTRY);
+                writeZigZagLong(out, id - state[0]);
+                writeZigZagLong(out, second - state[1]);
+                writeVarLong(out, timestamp.getNano());
+                Integer code = levels.get(level);
+                if (code == null) {
+                    code = levels.size();
+                    levels.put(level, code);
+                    writeVarLong(out, code);
+                    writeString(out, level);
+                } else {
+                    writeVarLong(out, code);
+                }
+                writeString(out, rs.getString(4));
+
+                state[0] = id;
+                state[1] = second;
+                state[2]++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return state[2];
+    }
+
+    private void insertPatterns(List<LogPattern> patterns) {
+        if (patterns.isEmpty()) {
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+            "INSERT INTO log_patterns (id, log_level, log_template) VALUES (?, ?, ?)",
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    LogPattern pattern = patterns.get(i);
+                    ps.setLong(1, pattern.getId());
+                    ps.setString(2, pattern.getLogLevel());
+                    ps.setString(3, pattern.getLogTemplate());
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return patterns.size();
+                }
+            }));
+    }
+
+    // Restored rows are announced like any other insert so derived in-memory structures are rebuilt
+    private void insertEntries(List<LogEntry> entries, Path csv) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        eventPublisher.withChangeLock(() -> {
+            if (csv != null) {
+                bulkLoadEntries(entries, csv);
+            } else {
+                insertEntryBatch(entries);
+            }
+            eventPublisher.inserted(entries);
+            return null;
+        });
+    }
+
+    // One INSERT ... SELECT per chunk instead of one bound statement per row
+    private void bulkLoadEntries(List<LogEntry> entries, Path csv) {
+        try (Writer writer = new BufferedWriter(Files.newBufferedWriter(csv, StandardCharsets.UTF_8), 1 << 16)) {
+            for (LogEntry entry : entries) {
+                writer.write(Long.toString(entry.getId()));
+                writer.write(',');
+                writer.write(CSV_TIMESTAMP.format(entry.getTimestamp()));
+                writer.write(',');
+                writeCsvString(writer, entry.getLogLevel());
+                writer.write(',');
+                writeCsvString(writer, entry.getMessage());
+                writer.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        int inserted = transactionTemplate.execute(status -> jdbcTemplate.update(
+            "INSERT INTO log_entries (id, timestamp, log_level, message) DIRECT "
+                + "SELECT CAST(id AS BIGINT), CAST(ts AS TIMESTAMP), log_level, message "
+                + "FROM CSVREAD('" + csv.toString().replace("'", "''") + "', 'id,ts,log_level,message', 'charset=UTF-8')"));
+        if (inserted != entries.size()) {
+            throw new IllegalStateException("Bulk load inserted " + inserted + " of " + entries.size() + " rows");
+        }
+    }
+
+    // Always quoted, so an empty message stays an empty string rather than NULL
+    private static void writeCsvString(Writer writer, String value) throws IOException {
+        writer.write('"');
+        writer.write(value.indexOf('"') < 0 ? value : value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private void insertEntryBatch(List<LogEntry> entries) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+            "INSERT INTO log_entries (id, timestamp, log_level, message) VALUES (?, ?, ?, ?)",
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    LogEntry entry = entries.get(i);
+                    ps.setLong(1, entry.getId());
+                    ps.setObject(2, entry.getTimestamp());
+                    ps.setString(3, entry.getLogLevel());
+                    ps.setString(4, entry.getMessage());
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return entries.size();
+                }
+            }));
+    }
+
+    private boolean isH2() {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((Connection connection) ->
+            "H2".equals(connection.getMetaData().getDatabaseProductName())));
+    }
+
+    private void restartIdentity(String table) {
+        Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + (maxId + 1));
+    }
+
+    // Timestamps are stored as wall-clock values; UTC is only used as a fixed reference
+    private static LocalDateTime fromEpochMillis(long epochMillis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMillis, 1000L),
+            (int) Math.floorMod(epochMillis, 1000L) * 1_000_000, ZoneOffset.UTC);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(MappedFileReader reader) throws IOException {
+        return new String(reader.readBytes((int) reader.readVarLong()), StandardCharsets.UTF_8);
+    }
+
+    private static void writeZigZagLong(DataOutputStream out, long value) throws IOException {
+        writeVarLong(out, (value << 1) ^ (value >> 63));
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+}
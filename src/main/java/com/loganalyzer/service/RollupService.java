@@ -0,0 +1,332 @@
+package com.loganalyzer.service;
+
+import com.loganalyzer.model.LogEntry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Incrementally maintained time-bucket rollups of log_entries: counts per
+ * (bucket, log level, LogPattern id) at minute, hour and day granularity.
+ * Every insert and delete adjusts the bucket of the entry's own timestamp, so
+ * late entries land in the right bucket, and histogram reads never touch raw rows.
+ *
+ * A rebuild scans the table without blocking ingest: the change lock is only
+ * held to pin a repeatable-read snapshot and start logging changes, and again
+ * to replay the changes logged during the scan and swap the new cubes in.
+ */
+@Service
+public class RollupService implements LogEntryListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(RollupService.class);
+
+    public static final int MAX_BUCKETS = 10_000;
+
+    public enum Granularity {
+        MINUTE("1m", 60), HOUR("1h", 3600), DAY("1d", 86400);
+
+        private final String code;
+        private final long seconds;
+
+        Granularity(String code, long seconds) {
+            this.code = code;
+            this.seconds = seconds;
+        }
+
+        public String getCode() {
+            return code;
+        }
+
+        public static Granularity fromCode(String code) {
+            for (Granularity granularity : values()) {
+                if (granularity.code.equalsIgnoreCase(code)) {
+                    return granularity;
+                }
+            }
+            throw new IllegalArgumentException("Unknown granularity '" + code + "', expected 1m, 1h or 1d");
+        }
+    }
+
+    @Autowired
+    private LogPatternMatcher logPatternMatcher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private LogEntryEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Retention is relative to the newest bucket seen (never later than now), so historical imports are kept; 0 keeps everything
+    @Value("${log-analyzer.rollups.minute-retention-hours:168}")
+    private long minuteRetentionHours;
+
+    @Value("${log-analyzer.rollups.hour-retention-hours:2160}")
+    private long hourRetentionHours;
+
+    private volatile Cubes cubes = new Cubes();
+    // Changes made while a rebuild scans the table; only set or cleared under the exclusive change lock
+    private volatile Queue<Change> rebuildLog;
+
+    @Override
+    public void onInserted(List<LogEntry> entries) {
+        Cubes current = cubes;
+        Queue<Change> log = rebuildLog;
+        for (LogEntry entry : entries) {
+            add(current, entry, 1);
+            if (log != null) {
+                log.add(new Change(entry, 1));
+            }
+        }
+    }
+
+    @Override
+    public void onDeleted(LogEntry entry) {
+        add(cubes, entry, -1);
+        Queue<Change> log = rebuildLog;
+        if (log != null) {
+            log.add(new Change(entry, -1));
+        }
+    }
+
+    @Override
+    public void onCleared() {
+        cubes = new Cubes();
+    }
+
+    // Pattern attribution changed, so recount from the raw rows once
+    @Override
+    public void onPatternsChanged() {
+        rebuild();
+    }
+
+    public synchronized void rebuild() {
+        long started = System.currentTimeMillis();
+        Cubes rebuilt = new Cubes();
+        TransactionTemplate snapshot = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        snapshot.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        snapshot.setReadOnly(true);
+        long[] replayed = new long[1];
+        try {
+            snapshot.executeWithoutResult(status -> {
+                // The first read pins the snapshot; every later committed change is in the log instead
+                eventPublisher.runExclusive(() -> {
+                    jdbcTemplate.queryForObject("SELECT COUNT(*) FROM log_entries", Long.class);
+                    rebuildLog = new ConcurrentLinkedQueue<>();
+                });
+                jdbcTemplate.query("SELECT timestamp, log_level, message FROM log_entries", rs -> {
+                    add(rebuilt, new LogEntry(null, rs.getObject(1, LocalDateTime.class), rs.getString(2), rs.getString(3)), 1);
+                });
+            });
+            eventPublisher.runExclusive(() -> {
+                for (Change change : rebuildLog) {
+                    add(rebuilt, change.entry, change.delta);
+                    replayed[0]++;
+                }
+                cubes = rebuilt;
+                rebuildLog = null;
+            });
+        } finally {
+            if (rebuildLog != null) {
+                eventPublisher.runExclusive(() -> rebuildLog = null);
+            }
+        }
+        logger.info("Rollups rebuilt in {} ms, {} changes replayed", System.currentTimeMillis() - started, replayed[0]);
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void evictExpiredBuckets() {
+        Cubes current = cubes;
+        long newest = current.newestSecond.get();
+        if (newest == Long.MIN_VALUE) {
+            return;
+        }
+        // A single entry stamped in the future must not expire every bucket up to now
+        newest = Math.min(newest, toEpochSecond(LocalDateTime.now()));
+        evict(current, Granularity.MINUTE, newest, minuteRetentionHours);
+        evict(current, Granularity.HOUR, newest, hourRetentionHours);
+    }
+
+    /**
+     * Counts per bucket in [from, to], optionally filtered by level and pattern and
+     * grouped by "level", "pattern", "level,pattern" or "none". Without a range the
+     * 60 most recent buckets are returned.
+     */
+    public List<Map<String, Object>> histogram(Granularity granularity, LocalDateTime from, LocalDateTime to,
+                                               String level, Long patternId, String groupBy) {
+        boolean byLevel = groupBy != null && groupBy.contains("level");
+        boolean byPattern = groupBy != null && groupBy.contains("pattern");
+
+        ConcurrentSkipListMap<Long, ConcurrentHashMap<RollupKey, LongAdder>> cube = cubes.byGranularity.get(granularity);
+        long toKey;
+        if (to != null) {
+            toKey = bucketStart(toEpochSecond(to), granularity);
+        } else {
+            Long lastKey = cube.isEmpty() ? null : cube.lastKey();
+            if (lastKey == null) {
+                return new ArrayList<>();
+            }
+            toKey = lastKey;
+        }
+        long fromKey = from != null ? bucketStart(toEpochSecond(from), granularity) : toKey - 59 * granularity.seconds;
+        if (fromKey > toKey) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        if ((toKey - fromKey) / granularity.seconds >= MAX_BUCKETS) {
+            throw new IllegalArgumentException("Range covers more than " + MAX_BUCKETS + " buckets, use a coarser granularity");
+        }
+
+        List<Map<String, Object>> points = new ArrayList<>();
+        ConcurrentNavigableMap<Long, ConcurrentHashMap<RollupKey, LongAdder>> range = cube.subMap(fromKey, true, toKey, true);
+        for (Map.Entry<Long, ConcurrentHashMap<RollupKey, LongAdder>> bucket : range.entrySet()) {
+            Map<RollupKey, Long> grouped = new TreeMap<>();
+            for (Map.Entry<RollupKey, LongAdder> cell : bucket.getValue().entrySet()) {
+                RollupKey key = cell.getKey();
+                if ((level != null && !level.equalsIgnoreCase(key.level))
+                        || (patternId != null && !patternId.equals(key.patternId))) {
+                    continue;
+                }
+                RollupKey groupKey = new RollupKey(byLevel ? key.level : null, byPattern ? key.patternId : null);
+                grouped.merge(groupKey, cell.getValue().sum(), Long::sum);
+            }
+            for (Map.Entry<RollupKey, Long> group : grouped.entrySet()) {
+                if (group.getValue() <= 0) {
+                    continue;
+                }
+                Map<String, Object> point = new LinkedHashMap<>();
+                point.put("bucket", LocalDateTime.ofEpochSecond(bucket.getKey(), 0, ZoneOffset.UTC));
+                if (byLevel) {
+                    point.put("level", group.getKey().level);
+                }
+                if (byPattern) {
+                    point.put("patternId", group.getKey().patternId);
+                }
+                point.put("count", group.getValue());
+                points.add(point);
+            }
+        }
+        return points;
+    }
+
+    private void add(Cubes target, LogEntry entry, long delta) {
+        if (entry.getTimestamp() == null) {
+            return;
+        }
+        long second = toEpochSecond(entry.getTimestamp());
+        RollupKey key = new RollupKey(entry.getLogLevel(), logPatternMatcher.match(entry.getMessage()));
+        for (Granularity granularity : Granularity.values()) {
+            target.byGranularity.get(granularity)
+                .computeIfAbsent(bucketStart(second, granularity), k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(key, k -> new LongAdder())
+                .add(delta);
+        }
+        if (delta > 0) {
+            target.newestSecond.accumulateAndGet(second, Math::max);
+        }
+    }
+
+    private void evict(Cubes target, Granularity granularity, long newest, long retentionHours) {
+        if (retentionHours <= 0) {
+            return;
+        }
+        long cutoff = bucketStart(newest - retentionHours * 3600, granularity);
+        target.byGranularity.get(granularity).headMap(cutoff).clear();
+    }
+
+    private static long bucketStart(long epochSecond, Granularity granularity) {
+        return Math.floorDiv(epochSecond, granularity.seconds) * granularity.seconds;
+    }
+
+    // Timestamps are wall-clock values; UTC is only a fixed reference for bucket arithmetic
+    private static long toEpochSecond(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static class Cubes {
+        private final Map<Granularity, ConcurrentSkipListMap<Long, ConcurrentHashMap<RollupKey, LongAdder>>> byGranularity =
+            new EnumMap<>(Granularity.class);
+        private final AtomicLong newestSecond = new AtomicLong(Long.MIN_VALUE);
+
+        private Cubes() {
+            for (Granularity granularity : Granularity.values()) {
+                byGranularity.put(granularity, new ConcurrentSkipListMap<>());
+            }
+        }
+    }
+
+    private static class Change {
+        private final LogEntry entry;
+        private final long delta;
+
+        private Change(LogEntry entry, long delta) {
+            this.entry = entry;
+            this.delta = delta;
+        }
+    }
+
+    private static class RollupKey implements Comparable<RollupKey> {
+        private final String level;
+        private final Long patternId;
+
+        private RollupKey(String level, Long patternId) {
+            this.level = level;
+            this.patternId = patternId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof RollupKey)) {
+                return false;
+            }
+            RollupKey other = (RollupKey) o;
+            return Objects.equals(level, other.level) && Objects.equals(patternId, other.patternId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(level, patternId);
+        }
+
+        @Override
+        public int compareTo(RollupKey other) {
+            int byLevel = compareNullable(level, other.level);
+            return byLevel != 0 ? byLevel : compareNullable(patternId, other.patternId);
+        }
+
+        private static <T extends Comparable<T>> int compareNullable(T a, T b) {
+            if (a == null || b == null) {
+                return a == null ? (b == null ? 0 : -1) : 1;
+            }
+            return a.compareTo(b);
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package com.loganalyzer.service;
+
+import com.loganalyzer.model.LogEntry;
+import com.loganalyzer.repository.LogEntryRowMapper;
+import com.loganalyzer.util.MessageTokenizer;
+import com.loganalyzer.util.ScalableBloomFilter;
+import com.loganalyzer.util.SimpleFilterQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Splits log_entries into fixed time segments and keeps a Bloom filter of message
+ * tokens per segment, filled as rows are inserted. Identifier lookups and
+ * {@code message [I]LIKE '%...%'} filters only scan the segments whose filter may
+ * contain every required token. Each filter grows with the distinct tokens its
+ * segment actually receives, so busy segments keep the target false-positive rate
+ * instead of saturating. Deletes leave the bits set, which can only cost false
+ * positives; rows older than the retained segments are always scanned.
+ */
+@Service
+public class SegmentIndexService implements LogEntryListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(SegmentIndexService.class);
+
+    // More ranges than this are collapsed into one span to keep the rewritten SQL small
+    private static final int MAX_RANGES = 256;
+
+    // Below this share of skipped segments a long range predicate costs more than the plain scan
+    private static final double MIN_SKIP_RATIO = 0.5;
+
+    private static final Pattern LIKE_PREDICATE = Pattern.compile(
+        "(?i)(?<![a-z0-9_])(?:[a-z_][a-z0-9_]*\\.)?message\\s+i?like\\s+'((?:[^']|'')*)'(?!')");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NON_CONJUNCTIVE = Pattern.compile("(?i)\\b(or|not|escape)\\b");
+    private static final DateTimeFormatter SQL_TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${log-analyzer.segments.enabled:true}")
+    private boolean enabled;
+
+    @Value("${log-analyzer.segments.minutes:60}")
+    private long segmentMinutes;
+
+    @Value("${log-analyzer.segments.bloom-initial-bits:65536}")
+    private long bloomInitialBits;
+
+    @Value("${log-analyzer.segments.bloom-false-positive-rate:0.01}")
+    private double bloomFalsePositiveRate;
+
+    // Per segment; past this the newest stage keeps filling and the false-positive rate rises
+    @Value("${log-analyzer.segments.bloom-max-bits:33554432}")
+    private long bloomMaxBits;
+
+    // Counted back from the newest segment (never later than now); 0 keeps every segment
+    @Value("${log-analyzer.segments.retention-hours:2160}")
+    private long retentionHours;
+
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+    private final AtomicLong evictedBefore = new AtomicLong(Long.MIN_VALUE);
+
+    private final LongAdder lookups = new LongAdder();
+    private final LongAdder rewrites = new LongAdder();
+    private final LongAdder segmentsConsidered = new LongAdder();
+    private final LongAdder segmentsSkipped = new LongAdder();
+
+    @Override
+    public void onInserted(List<LogEntry> entries) {
+        if (!enabled) {
+            return;
+        }
+        for (LogEntry entry : entries) {
+            if (entry.getTimestamp() == null) {
+                continue;
+            }
+            long start = segmentStart(toEpochSecond(entry.getTimestamp()));
+            if (start < evictedBefore.get()) {
+                continue;
+            }
+            Segment segment = segments.computeIfAbsent(start,
+                k -> new Segment(new ScalableBloomFilter(bloomInitialBits, bloomFalsePositiveRate, bloomMaxBits)));
+            MessageTokenizer.tokens(entry.getMessage(), segment.bloom::put);
+            segment.rows.increment();
+        }
+    }
+
+    // Bloom filters cannot forget a token; a deleted row only leaves a possible false positive
+    @Override
+    public void onDeleted(LogEntry entry) {
+    }
+
+    @Override
+    public void onCleared() {
+        segments.clear();
+        evictedBefore.set(Long.MIN_VALUE);
+    }
+
+    /**
+     * Entries whose message contains {@code identifier} on token boundaries, newest first.
+     */
+    public List<LogEntry> search(String identifier, int limit) {
+        String term = identifier.trim();
+        List<long[]> ranges = candidateRanges(MessageTokenizer.requiredTokens(term, false));
+        if (ranges != null && ranges.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT id, timestamp, log_level, message FROM log_entries WHERE message ILIKE ? ESCAPE '\\'");
+        List<Object> args = new ArrayList<>();
+        args.add("%" + escapeLike(term) + "%");
+        if (ranges != null) {
+            sql.append(" AND (");
+            for (int i = 0; i < ranges.size(); i++) {
+                sql.append(i > 0 ? " OR " : "").append("(timestamp >= ? AND timestamp < ?)");
+                args.add(toTimestamp(ranges.get(i)[0]));
+                args.add(toTimestamp(ranges.get(i)[1]));
+            }
+            sql.append(")");
+        }
+        sql.append(" ORDER BY timestamp DESC");
+
+        // ILIKE matches substrings, so token boundaries are checked on the fetched rows;
+        // the cursor is abandoned as soon as enough of them pass
+        ResultSetExtractor<List<LogEntry>> firstMatches = rs -> {
+            List<LogEntry> matches = new ArrayList<>();
+            while (matches.size() < limit && rs.next()) {
+                LogEntry entry = LogEntryRowMapper.INSTANCE.mapRow(rs, matches.size());
+                if (containsOnTokenBoundaries(entry.getMessage(), term)) {
+                    matches.add(entry);
+                }
+            }
+            return matches;
+        };
+        return jdbcTemplate.query(sql.toString(), firstMatches, args.toArray());
+    }
+
+    /**
+     * Adds a timestamp-range condition to filter-style SQL whose WHERE clause requires
+     * {@code message [I]LIKE '...'} patterns, or returns the SQL unchanged when no
+     * segment can be ruled out.
+     */
+    public String prune(String sql) {
+        if (!enabled || segments.isEmpty()) {
+            return sql;
+        }
+        SimpleFilterQuery query = SimpleFilterQuery.parse(sql);
+        if (query == null) {
+            return sql;
+        }
+        String condition = query.getCondition();
+        // Every LIKE predicate must hold only when the condition is a pure conjunction
+        if (NON_CONJUNCTIVE.matcher(STRING_LITERAL.matcher(condition).replaceAll("''")).find()) {
+            return sql;
+        }
+        List<String> tokens = new ArrayList<>();
+        Matcher matcher = LIKE_PREDICATE.matcher(condition);
+        while (matcher.find()) {
+            tokens.addAll(likePatternTokens(matcher.group(1).replace("''", "'")));
+        }
+        if (tokens.isEmpty()) {
+            return sql;
+        }
+        List<long[]> ranges = candidateRanges(tokens);
+        if (ranges == null) {
+            return sql;
+        }
+
+        StringBuilder extra = new StringBuilder("(");
+        if (ranges.isEmpty()) {
+            extra.append("1 = 0");
+        }
+        String column = query.timestampColumn();
+        for (int i = 0; i < ranges.size(); i++) {
+            extra.append(i > 0 ? " OR " : "")
+                .append("(").append(column).append(" >= TIMESTAMP '").append(formatSecond(ranges.get(i)[0]))
+                .append("' AND ").append(column).append(" < TIMESTAMP '").append(formatSecond(ranges.get(i)[1]))
+                .append("')");
+        }
+        extra.append(")");
+        rewrites.increment();
+        String pruned = query.withExtraCondition(extra.toString());
+        logger.debug("Segment pruning rewrote SQL to: {}", pruned);
+        return pruned;
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void evictExpiredSegments() {
+        if (retentionHours <= 0 || segments.isEmpty()) {
+            return;
+        }
+        // A single entry stamped in the future must not expire, and stop indexing, every segment up to now
+        long newest = Math.min(segments.lastKey(), toEpochSecond(LocalDateTime.now()));
+        long cutoff = segmentStart(newest - retentionHours * 3600);
+        if (cutoff > evictedBefore.get()) {
+            evictedBefore.set(cutoff);
+            segments.headMap(cutoff).clear();
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        long bytes = 0;
+        long rows = 0;
+        double tokens = 0;
+        double falsePositiveRate = 0;
+        double maxFalsePositiveRate = 0;
+        int maxStages = 0;
+        for (Segment segment : segments.values()) {
+            bytes += segment.bloom.sizeInBytes();
+            rows += segment.rows.sum();
+            tokens += segment.bloom.estimatedCount();
+            double rate = segment.bloom.estimatedFalsePositiveRate();
+            falsePositiveRate += rate;
+            maxFalsePositiveRate = Math.max(maxFalsePositiveRate, rate);
+            maxStages = Math.max(maxStages, segment.bloom.stageCount());
+        }
+        int count = segments.size();
+        long considered = segmentsConsidered.sum();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("segmentMinutes", segmentMinutes);
+        stats.put("segments", count);
+        stats.put("indexedRows", rows);
+        stats.put("bloomBytes", bytes);
+        stats.put("estimatedDistinctTokens", Math.round(tokens));
+        stats.put("maxBloomStages", maxStages);
+        stats.put("estimatedFalsePositiveRate", count > 0 ? falsePositiveRate / count : 0.0);
+        stats.put("maxEstimatedFalsePositiveRate", maxFalsePositiveRate);
+        stats.put("lookups", lookups.sum());
+        stats.put("queryRewrites", rewrites.sum());
+        stats.put("segmentsConsidered", considered);
+        stats.put("segmentsSkipped", segmentsSkipped.sum());
+        stats.put("skipRate", considered > 0 ? (double) segmentsSkipped.sum() / considered : 0.0);
+        return stats;
+    }
+
+    /**
+     * Merged [start, end) epoch-second ranges that may hold rows with all tokens,
+     * or null when nothing can be skipped.
+     */
+    private List<long[]> candidateRanges(List<String> tokens) {
+        if (!enabled || tokens.isEmpty() || segments.isEmpty()) {
+            return null;
+        }
+        lookups.increment();
+        long segmentSeconds = segmentMinutes * 60;
+        List<long[]> ranges = new ArrayList<>();
+        long evicted = evictedBefore.get();
+        if (evicted != Long.MIN_VALUE) {
+            ranges.add(new long[] {Long.MIN_VALUE, evicted});
+        }
+        int skipped = 0;
+        for (Map.Entry<Long, Segment> entry : segments.entrySet()) {
+            if (!entry.getValue().mightContainAll(tokens)) {
+                skipped++;
+                continue;
+            }
+            long start = entry.getKey();
+            long[] last = ranges.isEmpty() ? null : ranges.get(ranges.size() - 1);
+            if (last != null && last[1] == start) {
+                last[1] = start + segmentSeconds;
+            } else {
+                ranges.add(new long[] {start, start + segmentSeconds});
+            }
+        }
+        segmentsConsidered.add(segments.size());
+        segmentsSkipped.add(skipped);
+        if (skipped == 0 || skipped < segments.size() * MIN_SKIP_RATIO) {
+            return null;
+        }
+        if (ranges.size() > MAX_RANGES) {
+            long[] span = {ranges.get(0)[0], ranges.get(ranges.size() - 1)[1]};
+            ranges.clear();
+            ranges.add(span);
+        }
+        return ranges;
+    }
+
+    // Fixed parts of a LIKE pattern between wildcards; each must occur as a substring
+    private static List<String> likePatternTokens(String pattern) {
+        List<String> tokens = new ArrayList<>();
+        if (pattern.indexOf('\\') >= 0) {
+            return tokens;
+        }
+        for (String part : pattern.split("[%_]")) {
+            tokens.addAll(MessageTokenizer.requiredTokens(part, true));
+        }
+        return tokens;
+    }
+
+    static boolean containsOnTokenBoundaries(String message, String term) {
+        if (message == null || term.isEmpty()) {
+            return false;
+        }
+        String haystack = message.toLowerCase(Locale.ROOT);
+        String needle = term.toLowerCase(Locale.ROOT);
+        boolean checkStart = Character.isLetterOrDigit(needle.charAt(0));
+        boolean checkEnd = Character.isLetterOrDigit(needle.charAt(needle.length() - 1));
+        for (int at = haystack.indexOf(needle); at >= 0; at = haystack.indexOf(needle, at + 1)) {
+            int end = at + needle.length();
+            boolean startOk = !checkStart || at == 0 || !Character.isLetterOrDigit(haystack.charAt(at - 1));
+            boolean endOk = !checkEnd || end == haystack.length() || !Character.isLetterOrDigit(haystack.charAt(end));
+            if (startOk && endOk) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private long segmentStart(long epochSecond) {
+        long segmentSeconds = segmentMinutes * 60;
+        return Math.floorDiv(epochSecond, segmentSeconds) * segmentSeconds;
+    }
+
+    // Timestamps are wall-clock values; UTC is only a fixed reference for segment arithmetic
+    private static long toEpochSecond(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static Timestamp toTimestamp(long epochSecond) {
+        return Timestamp.valueOf(toDateTime(epochSecond));
+    }
+
+    private static String formatSecond(long epochSecond) {
+        return toDateTime(epochSecond).format(SQL_TIMESTAMP);
+    }
+
+    private static LocalDateTime toDateTime(long epochSecond) {
+        // The open-ended range below evicted segments starts at the earliest representable time
+        if (epochSecond == Long.MIN_VALUE) {
+            return LocalDateTime.of(1, 1, 1, 0, 0);
+        }
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+
+    private static class Segment {
+        private final ScalableBloomFilter bloom;
+        private final LongAdder rows = new LongAdder();
+
+        private Segment(ScalableBloomFilter bloom) {
+            this.bloom = bloom;
+        }
+
+        private boolean mightContainAll(List<String> tokens) {
+            for (String token : tokens) {
+                if (!bloom.mightContain(token)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
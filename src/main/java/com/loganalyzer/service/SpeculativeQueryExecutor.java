@@ -0,0 +1,315 @@
+package com.loganalyzer.service;
+
+import com.loganalyzer.dto.SqlCandidate;
+import com.loganalyzer.model.LogEntry;
+import com.loganalyzer.repository.LogEntryRowMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs several generated SQL candidates concurrently under a shared deadline.
+ * Candidates arrive in priority order (strict, correlated, fallback) and the
+ * highest-ranked one that returns a non-empty result within the row budget wins;
+ * once a lower-ranked candidate has rows, the ones ranked above it get at most
+ * {@code speculative-grace-ms} more to finish. Every other statement is then cancelled. A candidate that returns more than
+ * {@code max-rows} rows is disqualified rather than silently truncated; its
+ * capped result is only used when no other candidate produced rows.
+ *
+ * Candidates run on a bounded elastic pool sized for
+ * {@code speculative-parallelism} candidates of
+ * {@code speculative-max-concurrent-queries} queries at once: threads are
+ * started on demand up to that cap and retire after a minute idle, and further
+ * work queues rather than blocking other requests' candidates behind a small
+ * fixed pool.
+ */
+@Service
+public class SpeculativeQueryExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpeculativeQueryExecutor.class);
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Value("${log-analyzer.query.speculative-parallelism:3}")
+    private int parallelism;
+
+    // parallelism x concurrent queries should stay below the connection pool size
+    @Value("${log-analyzer.query.speculative-max-concurrent-queries:3}")
+    private int maxConcurrentQueries;
+
+    @Value("${log-analyzer.query.speculative-deadline-ms:10000}")
+    private long deadlineMs;
+
+    @Value("${log-analyzer.query.speculative-grace-ms:1000}")
+    private long graceMs;
+
+    @Value("${log-analyzer.query.max-rows:5000}")
+    private int maxRows;
+
+    private ExecutorService executor;
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong emptyResults = new AtomicLong();
+    private final AtomicLong allFailed = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong overBudget = new AtomicLong();
+    private final AtomicLong graceExpirations = new AtomicLong();
+    private final Map<String, LongAdder> winsByKind = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        int threads = Math.max(1, parallelism) * Math.max(1, maxConcurrentQueries);
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), runnable -> {
+                Thread thread = new Thread(runnable, "speculative-sql-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        pool.allowCoreThreadTimeOut(true);
+        executor = pool;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Returns the winning result, an empty result when every candidate ran but found nothing,
+     * or null when every candidate failed. Candidates are ranked by list position.
+     */
+    public Result execute(List<SqlCandidate> candidates) {
+        runs.incrementAndGet();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(deadlineMs);
+        ExecutorCompletionService<Attempt> completion = new ExecutorCompletionService<>(executor);
+        List<Attempt> attempts = new ArrayList<>();
+        List<Future<Attempt>> futures = new ArrayList<>();
+        for (SqlCandidate candidate : candidates) {
+            Attempt attempt = new Attempt(candidate, deadline);
+            attempts.add(attempt);
+            futures.add(completion.submit(attempt::run));
+        }
+
+        boolean[] finished = new boolean[futures.size()];
+        int failures = 0;
+        int best = -1;
+        int truncated = -1;
+        long graceEnds = Long.MAX_VALUE;
+        try {
+            for (int received = 0; received < futures.size(); received++) {
+                if (best >= 0 && allFinishedBefore(finished, best)) {
+                    break;
+                }
+                long remaining = Math.min(deadline, graceEnds) - System.nanoTime();
+                Future<Attempt> done = remaining > 0 ? completion.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                if (done == null) {
+                    if (best >= 0) {
+                        graceExpirations.incrementAndGet();
+                        logger.info("Higher-ranked SQL candidates still running after the {} ms grace window",
+                            graceMs);
+                    } else {
+                        timeouts.incrementAndGet();
+                        logger.warn("Speculative SQL deadline of {} ms reached", deadlineMs);
+                    }
+                    break;
+                }
+                int rank = futures.indexOf(done);
+                finished[rank] = true;
+                try {
+                    Attempt attempt = done.get();
+                    if (attempt.overBudget) {
+                        overBudget.incrementAndGet();
+                        logger.info("Speculative SQL candidate '{}' returned more than {} rows, disqualified",
+                            attempt.candidate.getKind(), maxRows);
+                        if (truncated < 0 || rank < truncated) {
+                            truncated = rank;
+                        }
+                    } else if (!attempt.logs.isEmpty() && (best < 0 || rank < best)) {
+                        if (best < 0) {
+                            // A lower-ranked result only waits this long for the candidates ranked above it
+                            graceEnds = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(graceMs);
+                        }
+                        best = rank;
+                    }
+                } catch (ExecutionException e) {
+                    failures++;
+                    logger.warn("Speculative SQL candidate failed: {}", e.getCause().getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for (Attempt attempt : attempts) {
+                attempt.cancel();
+            }
+            for (Future<Attempt> future : futures) {
+                future.cancel(true);
+            }
+        }
+
+        if (best >= 0) {
+            Attempt winner = attempts.get(best);
+            winsByKind.computeIfAbsent(winner.candidate.getKind(), k -> new LongAdder()).increment();
+            logger.info("Speculative SQL candidate '{}' won with {} rows", winner.candidate.getKind(), winner.logs.size());
+            return winner.result();
+        }
+        if (truncated >= 0) {
+            Attempt capped = attempts.get(truncated);
+            logger.warn("No candidate fit the {} row budget, using the first {} rows of '{}'",
+                maxRows, maxRows, capped.candidate.getKind());
+            return capped.result();
+        }
+        if (failures == candidates.size()) {
+            allFailed.incrementAndGet();
+            return null;
+        }
+        emptyResults.incrementAndGet();
+        return new Result(new ArrayList<>(), null);
+    }
+
+    private static boolean allFinishedBefore(boolean[] finished, int rank) {
+        for (int i = 0; i < rank; i++) {
+            if (!finished[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("runs", runs.get());
+        stats.put("emptyResults", emptyResults.get());
+        stats.put("allFailed", allFailed.get());
+        stats.put("timeouts", timeouts.get());
+        stats.put("overBudget", overBudget.get());
+        stats.put("graceExpirations", graceExpirations.get());
+        Map<String, Long> wins = new LinkedHashMap<>();
+        winsByKind.forEach((kind, count) -> wins.put(kind, count.sum()));
+        stats.put("winsByKind", wins);
+        return stats;
+    }
+
+    static String cleanSql(String sql) {
+        String cleanSql = sql.trim();
+        if (cleanSql.startsWith("```sql")) {
+            cleanSql = cleanSql.substring(6);
+        } else if (cleanSql.startsWith("```")) {
+            cleanSql = cleanSql.substring(3);
+        }
+        if (cleanSql.endsWith("```")) {
+            cleanSql = cleanSql.substring(0, cleanSql.length() - 3);
+        }
+        cleanSql = cleanSql.trim();
+        if (cleanSql.endsWith(";")) {
+            cleanSql = cleanSql.substring(0, cleanSql.length() - 1).trim();
+        }
+        return cleanSql;
+    }
+
+    /**
+     * Rows of the winning candidate and the SQL that produced them; the SQL is null for an empty result.
+     */
+    public static class Result {
+        private final List<LogEntry> logs;
+        private final String sql;
+
+        Result(List<LogEntry> logs, String sql) {
+            this.logs = logs;
+            this.sql = sql;
+        }
+
+        public List<LogEntry> getLogs() {
+            return logs;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+    }
+
+    private class Attempt {
+        private final SqlCandidate candidate;
+        private final long deadline;
+        private volatile Statement statement;
+        private volatile boolean cancelled;
+        private List<LogEntry> logs = new ArrayList<>();
+        private boolean overBudget;
+
+        private Attempt(SqlCandidate candidate, long deadline) {
+            this.candidate = candidate;
+            this.deadline = deadline;
+        }
+
+        private Attempt run() throws SQLException {
+            try (Connection connection = dataSource.getConnection();
+                 Statement st = connection.createStatement()) {
+                statement = st;
+                if (cancelled) {
+                    return this;
+                }
+                long remainingMs = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                st.setQueryTimeout((int) Math.max(1, (remainingMs + 999) / 1000));
+                // One extra row tells a result that fits the budget from one that was cut off
+                st.setMaxRows(maxRows + 1);
+                try (ResultSet rs = st.executeQuery(cleanSql(candidate.getSql()))) {
+                    List<LogEntry> rows = new ArrayList<>();
+                    while (rs.next()) {
+                        if (rows.size() == maxRows) {
+                            overBudget = true;
+                            break;
+                        }
+                        rows.add(LogEntryRowMapper.INSTANCE.mapRow(rs, rows.size()));
+                    }
+                    logs = rows;
+                }
+                return this;
+            } finally {
+                statement = null;
+            }
+        }
+
+        private Result result() {
+            return new Result(logs, cleanSql(candidate.getSql()));
+        }
+
+        private void cancel() {
+            cancelled = true;
+            Statement st = statement;
+            if (st != null) {
+                try {
+                    st.cancel();
+                } catch (SQLException e) {
+                    logger.debug("Failed to cancel speculative statement", e);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package com.loganalyzer.service;
+
+import com.loganalyzer.model.LogEntry;
+import com.loganalyzer.util.HyperLogLog;
+import com.loganalyzer.util.MessageNormalizer;
+import com.loganalyzer.util.SpaceSaving;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fixed-memory streaming sketches over ingested messages, kept per tumbling window
+ * of entry time: Space-Saving top-K of normalized message templates per log level
+ * and HyperLogLog distinct counts of configured parameter keys (userId, requestId,
+ * ...). Windows are merged at query time. Sketches cannot forget, so deleted
+ * entries still count until their window expires.
+ */
+@Service
+public class StreamStatsService implements LogEntryListener {
+
+    @Value("${log-analyzer.sketches.enabled:true}")
+    private boolean enabled;
+
+    @Value("${log-analyzer.sketches.window-minutes:10}")
+    private long windowMinutes;
+
+    // Counted back from the newest window (never later than now); 0 keeps every window
+    @Value("${log-analyzer.sketches.retention-hours:24}")
+    private long retentionHours;
+
+    @Value("${log-analyzer.sketches.top-capacity:100}")
+    private int topCapacity;
+
+    @Value("${log-analyzer.sketches.hll-precision:12}")
+    private int hllPrecision;
+
+    @Value("${log-analyzer.sketches.distinct-keys:userId,requestId,traceId}")
+    private List<String> distinctKeys;
+
+    private static final String VALUE_DELIMITERS = ",;)]}\"'";
+
+    private final ConcurrentSkipListMap<Long, Window> windows = new ConcurrentSkipListMap<>();
+    private final AtomicLong newestWindow = new AtomicLong(Long.MIN_VALUE);
+    // Lower-cased key -> configured spelling
+    private final Map<String, String> keys = new LinkedHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        for (String key : distinctKeys) {
+            String trimmed = key.trim();
+            if (!trimmed.isEmpty()) {
+                keys.put(trimmed.toLowerCase(Locale.ROOT), trimmed);
+            }
+        }
+    }
+
+    @Override
+    public void onInserted(List<LogEntry> entries) {
+        if (!enabled) {
+            return;
+        }
+        long currentStart = Long.MIN_VALUE;
+        Window window = null;
+        for (LogEntry entry : entries) {
+            if (entry.getTimestamp() == null) {
+                continue;
+            }
+            // Batches are mostly time-ordered, so the window lookup is reused across consecutive entries
+            long start = windowStart(toEpochSecond(entry.getTimestamp()));
+            if (start != currentStart) {
+                currentStart = start;
+                window = windows.computeIfAbsent(start, k -> new Window());
+                newestWindow.accumulateAndGet(start, Math::max);
+            }
+            String level = entry.getLogLevel() != null ? entry.getLogLevel().toUpperCase(Locale.ROOT) : "UNKNOWN";
+            window.templates.computeIfAbsent(level, k -> new SpaceSaving(topCapacity))
+                .add(MessageNormalizer.normalize(entry.getMessage()));
+            if (entry.getMessage() != null && !keys.isEmpty()) {
+                addKeyValues(window, entry.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Finds key=value and key:value occurrences of the configured keys (case-insensitive,
+     * not preceded by a word character); the value runs to the next delimiter.
+     */
+    private void addKeyValues(Window window, String message) {
+        String lower = message.toLowerCase(Locale.ROOT);
+        if (lower.length() != message.length()) {
+            // A few characters change length when lower-cased; positions must line up with the message
+            lower = message;
+        }
+        for (Map.Entry<String, String> key : keys.entrySet()) {
+            String needle = key.getKey();
+            int at = lower.indexOf(needle);
+            while (at >= 0) {
+                int i = at + needle.length();
+                if (at == 0 || !isWordChar(lower.charAt(at - 1))) {
+                    while (i < lower.length() && lower.charAt(i) == ' ') {
+                        i++;
+                    }
+                    if (i < lower.length() && (lower.charAt(i) == '=' || lower.charAt(i) == ':')) {
+                        i++;
+                        while (i < lower.length() && lower.charAt(i) == ' ') {
+                            i++;
+                        }
+                        int end = i;
+                        while (end < message.length() && VALUE_DELIMITERS.indexOf(message.charAt(end)) < 0
+                                && !Character.isWhitespace(message.charAt(end))) {
+                            end++;
+                        }
+                        String value = trimTrailingPunctuation(message.substring(i, end));
+                        if (!value.isEmpty()) {
+                            window.distinct.computeIfAbsent(key.getValue(), k -> new HyperLogLog(hllPrecision)).add(value);
+                        }
+                        i = end;
+                    }
+                }
+                at = lower.indexOf(needle, i);
+            }
+        }
+    }
+
+    // Sketches cannot subtract; a deleted entry stays counted until its window expires
+    @Override
+    public void onDeleted(LogEntry entry) {
+    }
+
+    @Override
+    public void onCleared() {
+        windows.clear();
+        newestWindow.set(Long.MIN_VALUE);
+    }
+
+    @Scheduled(fixedDelay = 60_000)
+    public void evictExpiredWindows() {
+        long newest = newestWindow.get();
+        if (retentionHours <= 0 || newest == Long.MIN_VALUE) {
+            return;
+        }
+        // A single entry stamped in the future must not expire every window up to now
+        newest = Math.min(newest, toEpochSecond(LocalDateTime.now()));
+        windows.headMap(windowStart(newest - retentionHours * 3600)).clear();
+    }
+
+    /**
+     * Most frequent normalized templates of a level in [from, to). Without a range the
+     * last hour of windows up to the newest one is used. Counts are upper bounds; the
+     * error field says by how much each may overcount.
+     */
+    public Map<String, Object> top(String level, LocalDateTime from, LocalDateTime to, int limit) {
+        ConcurrentNavigableMap<Long, Window> range = range(from, to);
+        String resolvedLevel = level != null ? level.toUpperCase(Locale.ROOT) : "ERROR";
+
+        Map<String, long[]> merged = new HashMap<>();
+        long total = 0;
+        long untrackedBound = 0;
+        for (Window window : range.values()) {
+            SpaceSaving sketch = window.templates.get(resolvedLevel);
+            if (sketch == null) {
+                continue;
+            }
+            total += sketch.getTotal();
+            untrackedBound += sketch.getMinimum();
+            for (SpaceSaving.Counter counter : sketch.counters()) {
+                long[] sums = merged.computeIfAbsent(counter.getKey(), k -> new long[2]);
+                sums[0] += counter.getCount();
+                sums[1] += counter.getError();
+            }
+        }
+
+        List<Map.Entry<String, long[]>> ranked = new ArrayList<>(merged.entrySet());
+        ranked.sort(Comparator.comparingLong((Map.Entry<String, long[]> e) -> e.getValue()[0]).reversed());
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (Map.Entry<String, long[]> item : ranked.subList(0, Math.min(limit, ranked.size()))) {
+            Map<String, Object> point = new LinkedHashMap<>();
+            point.put("template", item.getKey());
+            point.put("count", item.getValue()[0]);
+            point.put("error", item.getValue()[1]);
+            items.add(point);
+        }
+
+        Map<String, Object> result = rangeInfo(range);
+        result.put("level", resolvedLevel);
+        result.put("total", total);
+        // A template missing from some window's sketch may have up to this many uncounted occurrences
+        result.put("untrackedBound", untrackedBound);
+        result.put("items", items);
+        return result;
+    }
+
+    /**
+     * Approximate number of distinct values of a configured key in [from, to), with a
+     * per-window breakdown.
+     */
+    public Map<String, Object> distinct(String key, LocalDateTime from, LocalDateTime to) {
+        String resolvedKey = resolveKey(key);
+        ConcurrentNavigableMap<Long, Window> range = range(from, to);
+
+        HyperLogLog merged = new HyperLogLog(hllPrecision);
+        List<Map<String, Object>> series = new ArrayList<>();
+        for (Map.Entry<Long, Window> window : range.entrySet()) {
+            HyperLogLog sketch = window.getValue().distinct.get(resolvedKey);
+            if (sketch == null) {
+                continue;
+            }
+            merged.merge(sketch);
+            Map<String, Object> point = new LinkedHashMap<>();
+            point.put("window", toDateTime(window.getKey()));
+            point.put("estimate", sketch.estimate());
+            series.add(point);
+        }
+
+        Map<String, Object> result = rangeInfo(range);
+        result.put("key", resolvedKey);
+        result.put("estimate", merged.estimate());
+        result.put("relativeError", 1.04 / Math.sqrt(1 << hllPrecision));
+        result.put("windows", series);
+        return result;
+    }
+
+    /**
+     * Short plain-text digest for the analysis prompt: top ERROR/WARN templates and
+     * distinct key counts over the given range, or an empty string when nothing is known.
+     */
+    public String describe(LocalDateTime from, LocalDateTime to) {
+        if (!enabled || windows.isEmpty()) {
+            return "";
+        }
+        StringBuilder text = new StringBuilder();
+        for (String level : List.of("ERROR", "WARN")) {
+            @SuppressWarnings("unchecked")
+            List<Map<String, Object>> items = (List<Map<String, Object>>) top(level, from, to, 5).get("items");
+            if (items.isEmpty()) {
+                continue;
+            }
+            text.append("Частые шаблоны ").append(level).append(":\n");
+            for (Map<String, Object> item : items) {
+                text.append("- ~").append(item.get("count")).append(" × ").append(item.get("template")).append("\n");
+            }
+        }
+        for (String key : keys.values()) {
+            Object estimate = distinct(key, from, to).get("estimate");
+            if (estimate instanceof Long && (Long) estimate > 0) {
+                text.append("Уникальных ").append(key).append(": ~").append(estimate).append("\n");
+            }
+        }
+        return text.toString();
+    }
+
+    public List<String> getDistinctKeys() {
+        return new ArrayList<>(keys.values());
+    }
+
+    private String resolveKey(String key) {
+        String configured = key != null ? keys.get(key.toLowerCase(Locale.ROOT)) : null;
+        if (configured == null) {
+            throw new IllegalArgumentException("Unknown key '" + key + "', expected one of " + keys.values());
+        }
+        return configured;
+    }
+
+    private ConcurrentNavigableMap<Long, Window> range(LocalDateTime from, LocalDateTime to) {
+        long newest = newestWindow.get();
+        if (newest == Long.MIN_VALUE) {
+            return new ConcurrentSkipListMap<>();
+        }
+        long toKey = to != null ? toEpochSecond(to) : newest + windowMinutes * 60;
+        long fromKey = from != null ? windowStart(toEpochSecond(from)) : toKey - 3600;
+        if (fromKey >= toKey) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+        return windows.subMap(fromKey, true, toKey, false);
+    }
+
+    private Map<String, Object> rangeInfo(ConcurrentNavigableMap<Long, Window> range) {
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("windowMinutes", windowMinutes);
+        info.put("from", range.isEmpty() ? null : toDateTime(range.firstKey()));
+        info.put("to", range.isEmpty() ? null : toDateTime(range.lastKey() + windowMinutes * 60));
+        info.put("windowCount", range.size());
+        return info;
+    }
+
+    private static String trimTrailingPunctuation(String value) {
+        int end = value.length();
+        while (end > 0 && (value.charAt(end - 1) == '.' || value.charAt(end - 1) == ':')) {
+            end--;
+        }
+        return value.substring(0, end);
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    private long windowStart(long epochSecond) {
+        long windowSeconds = windowMinutes * 60;
+        return Math.floorDiv(epochSecond, windowSeconds) * windowSeconds;
+    }
+
+    // Timestamps are wall-clock values; UTC is only a fixed reference for window arithmetic
+    private static long toEpochSecond(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC);
+    }
+
+    private static LocalDateTime toDateTime(long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+
+    private static class Window {
+        private final Map<String, SpaceSaving> templates = new ConcurrentHashMap<>();
+        private final Map<String, HyperLogLog> distinct = new ConcurrentHashMap<>();
+    }
+}
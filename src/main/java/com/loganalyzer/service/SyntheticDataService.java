@@ -0,0 +1,123 @@
+package com.loganalyzer.service;
+
+import com.loganalyzer.util.SyntheticLogGenerator;
+import com.loganalyzer.model.LogEntry;
+import com.loganalyzer.model.LogPattern;
+import com.loganalyzer.repository.LogPatternRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Fills log_entries with synthetic data from the configured LogPattern templates
+ * (or the built-in sample templates) on a background thread, in JDBC batches
+ * through {@link LogBatchWriter} so rollups and segment indexes stay current.
+ */
+@Service
+public class SyntheticDataService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyntheticDataService.class);
+
+    private static final int BATCH_SIZE = 5000;
+
+    @Autowired
+    private LogBatchWriter batchWriter;
+
+    @Autowired
+    private LogPatternRepository logPatternRepository;
+
+    private final AtomicLong written = new AtomicLong();
+    private volatile Thread worker;
+    private volatile long requested;
+    private volatile long startedAt;
+    private volatile long finishedAt;
+    private volatile String failure;
+
+    /**
+     * Starts a generation job; {@code start} defaults to rows/rate seconds before now so the
+     * data ends at the present. {@code options} sets flow and error behaviour on the generator
+     * before it runs. Only one job runs at a time.
+     */
+    public synchronized Map<String, Object> start(long rows, double rate, LocalDateTime start, long seed,
+                                                  Consumer<SyntheticLogGenerator> options) {
+        if (worker != null && worker.isAlive()) {
+            throw new IllegalStateException("A generation job is already running");
+        }
+        LocalDateTime from = start != null ? start
+            : LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).minusSeconds((long) (rows / rate));
+        List<LogPattern> patterns = logPatternRepository.findAll();
+        SyntheticLogGenerator generator = new SyntheticLogGenerator(patterns, rows, rate, from, seed);
+        options.accept(generator);
+
+        written.set(0);
+        requested = rows;
+        startedAt = System.currentTimeMillis();
+        finishedAt = 0;
+        failure = null;
+        worker = new Thread(() -> run(generator), "synthetic-generator");
+        worker.setDaemon(true);
+        worker.start();
+        logger.info("Generating {} synthetic log entries from {} at {}/s", rows, from, rate);
+        return getStatus();
+    }
+
+    public void cancel() {
+        Thread current = worker;
+        if (current != null) {
+            current.interrupt();
+        }
+    }
+
+    public Map<String, Object> getStatus() {
+        Thread current = worker;
+        long end = finishedAt > 0 ? finishedAt : System.currentTimeMillis();
+        long elapsed = startedAt > 0 ? end - startedAt : 0;
+
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", current != null && current.isAlive());
+        status.put("requested", requested);
+        status.put("written", written.get());
+        status.put("elapsedMs", elapsed);
+        status.put("rowsPerSecond", elapsed > 0 ? written.get() * 1000 / elapsed : 0);
+        if (failure != null) {
+            status.put("error", failure);
+        }
+        return status;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        cancel();
+    }
+
+    private void run(SyntheticLogGenerator generator) {
+        List<LogEntry> batch = new ArrayList<>(BATCH_SIZE);
+        try {
+            while (generator.hasNext() && !Thread.currentThread().isInterrupted()) {
+                batch.add(generator.next());
+                if (batch.size() == BATCH_SIZE || !generator.hasNext()) {
+                    batchWriter.writeBatch(batch);
+                    written.addAndGet(batch.size());
+                    batch = new ArrayList<>(BATCH_SIZE);
+                }
+            }
+            logger.info("Synthetic generation finished: {} entries", written.get());
+        } catch (Exception e) {
+            failure = e.getMessage();
+            logger.error("Synthetic generation failed after {} entries", written.get(), e);
+        } finally {
+            finishedAt = System.currentTimeMillis();
+        }
+    }
+}
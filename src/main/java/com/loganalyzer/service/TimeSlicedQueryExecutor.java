@@ -0,0 +1,279 @@
+package com.loganalyzer.service;
+
+import com.loganalyzer.model.LogEntry;
+import com.loganalyzer.repository.LogEntryRowMapper;
+import com.loganalyzer.util.SimpleFilterQuery;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Parallel execution of filter-style generated SQL. The query is split into
+ * timestamp-range slices that run on separate connections; because the slices
+ * are disjoint and ordered, merging them is an ordered concatenation, and
+ * remaining slices are cancelled as soon as LIMIT is satisfied.
+ *
+ * Slice boundaries are row quantiles of timestamp read through the timestamp
+ * index, so every slice covers about the same number of rows however bursty
+ * the data is. They are cached together with the row count and re-planned only
+ * after a tenth of the table has changed; inserts and deletes are counted via
+ * {@link LogEntryListener}, so a query does no COUNT(*) or MIN/MAX of its own.
+ * The first and last slices are open-ended, so rows added since the last plan
+ * are still covered.
+ */
+@Service
+public class TimeSlicedQueryExecutor implements LogEntryListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimeSlicedQueryExecutor.class);
+
+    private static final double REPLAN_FRACTION = 0.1;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${log-analyzer.query.parallel:false}")
+    private boolean enabled;
+
+    @Value("${log-analyzer.query.parallel-slices:4}")
+    private int slices;
+
+    @Value("${log-analyzer.query.parallel-min-rows:100000}")
+    private long minRows;
+
+    private ExecutorService executor;
+
+    private volatile SlicePlan cachedPlan;
+    private final AtomicLong changesSincePlan = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(Math.max(1, slices), runnable -> {
+            Thread thread = new Thread(runnable, "sliced-sql-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public void onInserted(List<LogEntry> entries) {
+        changesSincePlan.addAndGet(entries.size());
+    }
+
+    @Override
+    public void onDeleted(LogEntry entry) {
+        changesSincePlan.incrementAndGet();
+    }
+
+    @Override
+    public void onCleared() {
+        cachedPlan = null;
+        changesSincePlan.set(0);
+    }
+
+    /**
+     * Returns null when the query should run serially: the mode is off, the table is
+     * too small, the SQL cannot be split safely, or a slice failed.
+     */
+    public List<LogEntry> tryExecute(String sql) {
+        if (!enabled || slices < 2) {
+            return null;
+        }
+        SimpleFilterQuery query = SimpleFilterQuery.parse(sql);
+        if (query == null) {
+            logger.debug("Generated SQL is not splittable, running serially");
+            return null;
+        }
+        SlicePlan slicePlan = currentPlan();
+        if (slicePlan.rowCount + changesSincePlan.get() < minRows || slicePlan.boundaries.isEmpty()) {
+            return null;
+        }
+
+        List<Slice> plan = planSlices(query, slicePlan.boundaries);
+        List<Future<List<LogEntry>>> futures = new ArrayList<>();
+        for (Slice slice : plan) {
+            futures.add(executor.submit(slice::run));
+        }
+
+        Integer limit = query.getLimit();
+        List<LogEntry> merged = new ArrayList<>();
+        try {
+            for (Future<List<LogEntry>> future : futures) {
+                merged.addAll(future.get());
+                if (limit != null && merged.size() >= limit) {
+                    return new ArrayList<>(merged.subList(0, limit));
+                }
+            }
+            logger.info("Sliced execution over {} slices returned {} rows", plan.size(), merged.size());
+            return merged;
+        } catch (ExecutionException e) {
+            logger.warn("Sliced execution failed, running serially: {}", e.getCause().getMessage());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            for (Slice slice : plan) {
+                slice.cancel();
+            }
+            for (Future<List<LogEntry>> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private SlicePlan currentPlan() {
+        SlicePlan plan = cachedPlan;
+        if (plan != null && !isStale(plan)) {
+            return plan;
+        }
+        synchronized (this) {
+            plan = cachedPlan;
+            if (plan == null || isStale(plan)) {
+                plan = loadPlan();
+                cachedPlan = plan;
+            }
+            return plan;
+        }
+    }
+
+    // Small tables are re-counted every tenth of minRows changes so they are noticed crossing the threshold
+    private boolean isStale(SlicePlan plan) {
+        return changesSincePlan.get() > REPLAN_FRACTION * Math.max(plan.rowCount, minRows);
+    }
+
+    private SlicePlan loadPlan() {
+        changesSincePlan.set(0);
+        Long rowCount = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM log_entries", Long.class);
+        long rows = rowCount != null ? rowCount : 0;
+        List<LocalDateTime> boundaries = new ArrayList<>();
+        if (rows >= minRows) {
+            for (int i = 1; i < slices; i++) {
+                List<LocalDateTime> quantile = jdbcTemplate.query(
+                    "SELECT timestamp FROM log_entries ORDER BY timestamp LIMIT 1 OFFSET ?",
+                    (rs, rowNum) -> rs.getObject(1, LocalDateTime.class), rows * i / slices);
+                // Repeated timestamps can make neighbouring quantiles equal; those slices merge
+                if (!quantile.isEmpty() && quantile.get(0) != null
+                        && (boundaries.isEmpty() || quantile.get(0).isAfter(boundaries.get(boundaries.size() - 1)))) {
+                    boundaries.add(quantile.get(0));
+                }
+            }
+            logger.info("Planned {} time slices over {} rows", boundaries.size() + 1, rows);
+        }
+        return new SlicePlan(rows, boundaries);
+    }
+
+    // Ranges split at the cached boundaries, listed in the query's sort order so results concatenate in order
+    private List<Slice> planSlices(SimpleFilterQuery query, List<LocalDateTime> boundaries) {
+        List<Slice> plan = new ArrayList<>(boundaries.size() + 1);
+        String column = query.timestampColumn();
+        for (int i = 0; i <= boundaries.size(); i++) {
+            LocalDateTime from = i == 0 ? null : boundaries.get(i - 1);
+            LocalDateTime to = i == boundaries.size() ? null : boundaries.get(i);
+            String range;
+            if (from == null) {
+                range = column + " < ?";
+            } else if (to == null) {
+                range = column + " >= ?";
+            } else {
+                range = column + " >= ? AND " + column + " < ?";
+            }
+            plan.add(new Slice(query.withExtraCondition(range), from, to));
+        }
+        if (query.isDescending()) {
+            Collections.reverse(plan);
+        }
+        return plan;
+    }
+
+    private static class SlicePlan {
+        private final long rowCount;
+        private final List<LocalDateTime> boundaries;
+
+        private SlicePlan(long rowCount, List<LocalDateTime> boundaries) {
+            this.rowCount = rowCount;
+            this.boundaries = boundaries;
+        }
+    }
+
+    private class Slice {
+        private final String sql;
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+        private volatile PreparedStatement statement;
+        private volatile boolean cancelled;
+
+        private Slice(String sql, LocalDateTime from, LocalDateTime to) {
+            this.sql = sql;
+            this.from = from;
+            this.to = to;
+        }
+
+        private List<LogEntry> run() throws SQLException {
+            List<LogEntry> rows = new ArrayList<>();
+            try (Connection connection = dataSource.getConnection();
+                 PreparedStatement ps = connection.prepareStatement(sql)) {
+                statement = ps;
+                if (cancelled) {
+                    return rows;
+                }
+                int parameter = 1;
+                if (from != null) {
+                    ps.setObject(parameter++, from);
+                }
+                if (to != null) {
+                    ps.setObject(parameter, to);
+                }
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        rows.add(LogEntryRowMapper.INSTANCE.mapRow(rs, rows.size()));
+                    }
+                }
+                return rows;
+            } finally {
+                statement = null;
+            }
+        }
+
+        private void cancel() {
+            cancelled = true;
+            PreparedStatement ps = statement;
+            if (ps != null) {
+                try {
+                    ps.cancel();
+                } catch (SQLException e) {
+                    logger.debug("Failed to cancel slice statement", e);
+                }
+            }
+        }
+    }
+}
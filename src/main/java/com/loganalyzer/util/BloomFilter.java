@@ -0,0 +1,90 @@
+package com.loganalyzer.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size Bloom filter over strings. Bits are set with CAS so concurrent
+ * writers never lose an insert; readers never see false negatives.
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+    private final LongAdder setBits = new LongAdder();
+
+    public BloomFilter(long requestedBits, int hashCount) {
+        int wordCount = (int) Math.max(1, (requestedBits + 63) / 64);
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = (long) wordCount * 64;
+        this.hashCount = hashCount;
+    }
+
+    /**
+     * Returns true when the value set at least one new bit, i.e. it was definitely not present before.
+     */
+    public boolean put(String value) {
+        long hash = Hashing.hash64(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        boolean changed = false;
+        for (int i = 1; i <= hashCount; i++) {
+            changed |= setBit(Math.floorMod(h1 + i * h2, bitCount));
+        }
+        return changed;
+    }
+
+    public boolean mightContain(String value) {
+        long hash = Hashing.hash64(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long bitCount() {
+        return bitCount;
+    }
+
+    public long sizeInBytes() {
+        return bitCount / 8;
+    }
+
+    // Share of set bits; the false positive rate is roughly this value to the power of the hash count
+    public double fillRatio() {
+        return (double) setBits.sum() / bitCount;
+    }
+
+    // Distinct values inserted so far, estimated from the fill ratio (Swamidass and Baldi)
+    public double estimatedCount() {
+        double fill = fillRatio();
+        if (fill >= 1.0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return -(double) bitCount / hashCount * Math.log1p(-fill);
+    }
+
+    public int hashCount() {
+        return hashCount;
+    }
+
+    private boolean setBit(long bit) {
+        int index = (int) (bit >>> 6);
+        long mask = 1L << bit;
+        long current;
+        do {
+            current = words.get(index);
+            if ((current & mask) != 0) {
+                return false;
+            }
+        } while (!words.compareAndSet(index, current, current | mask));
+        setBits.increment();
+        return true;
+    }
+}
@@ -0,0 +1,24 @@
+package com.loganalyzer.util;
+
+/**
+ * 64-bit string hash shared by the probabilistic sketches.
+ */
+public final class Hashing {
+
+    private Hashing() {}
+
+    // FNV-1a over UTF-16 chars followed by a 64-bit finalizer mix
+    public static long hash64(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
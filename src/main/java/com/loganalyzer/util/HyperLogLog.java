@@ -0,0 +1,73 @@
+package com.loganalyzer.util;
+
+/**
+ * HyperLogLog distinct-count sketch with 2^precision one-byte registers
+ * (standard error about 1.04 / sqrt(2^precision)). Sketches of the same
+ * precision merge losslessly, so windows can be combined at query time.
+ */
+public class HyperLogLog {
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("precision must be between 4 and 18");
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    public synchronized void add(String value) {
+        long hash = Hashing.hash64(value);
+        int index = (int) (hash >>> (64 - precision));
+        // Rank of the first set bit in the remaining bits; the sentinel bit caps it
+        int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    public synchronized void merge(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Cannot merge sketches of different precision");
+        }
+        byte[] copy = other.snapshot();
+        for (int i = 0; i < registers.length; i++) {
+            if (copy[i] > registers[i]) {
+                registers[i] = copy[i];
+            }
+        }
+    }
+
+    public synchronized long estimate() {
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double alpha = m == 16 ? 0.673 : m == 32 ? 0.697 : m == 64 ? 0.709 : 0.7213 / (1 + 1.079 / m);
+        double estimate = alpha * m * m / sum;
+        // Linear counting is more accurate while many registers are still empty
+        if (estimate <= 2.5 * m && zeros > 0) {
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    public int sizeInBytes() {
+        return registers.length;
+    }
+
+    private synchronized byte[] snapshot() {
+        return registers.clone();
+    }
+}
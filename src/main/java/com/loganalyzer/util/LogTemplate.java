@@ -0,0 +1,146 @@
+package com.loganalyzer.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A LogPattern template compiled for matching. Templates are stored as logger
+ * calls, e.g. {@code logger.info("send failed for id={}", user.getId());}, so the
+ * format string literal is extracted and split into the fixed fragments around
+ * each {@code {}} placeholder.
+ */
+public class LogTemplate {
+
+    private final String format;
+    private final List<String> fragments;
+    private final List<String> arguments;
+    private final int literalLength;
+
+    private LogTemplate(String format, List<String> fragments, List<String> arguments) {
+        this.format = format;
+        this.fragments = fragments;
+        this.arguments = arguments;
+        int length = 0;
+        for (String fragment : fragments) {
+            length += fragment.length();
+        }
+        this.literalLength = length;
+    }
+
+    public static LogTemplate parse(String template) {
+        String format = extractFormat(template);
+        List<String> fragments = new ArrayList<>();
+        int start = 0;
+        int placeholder;
+        while ((placeholder = format.indexOf("{}", start)) >= 0) {
+            fragments.add(format.substring(start, placeholder));
+            start = placeholder + 2;
+        }
+        fragments.add(format.substring(start));
+        return new LogTemplate(format, Collections.unmodifiableList(fragments),
+            Collections.unmodifiableList(extractArguments(template)));
+    }
+
+    /**
+     * True when every fixed fragment occurs in the message, in order.
+     */
+    public boolean matches(String message) {
+        if (literalLength == 0 || message == null) {
+            return false;
+        }
+        int position = 0;
+        for (String fragment : fragments) {
+            if (fragment.isEmpty()) {
+                continue;
+            }
+            int found = message.indexOf(fragment, position);
+            if (found < 0) {
+                return false;
+            }
+            position = found + fragment.length();
+        }
+        return true;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public List<String> getFragments() {
+        return fragments;
+    }
+
+    // Argument expressions after the format string, e.g. "user.getId()"; empty for plain text templates
+    public List<String> getArguments() {
+        return arguments;
+    }
+
+    public int getPlaceholderCount() {
+        return fragments.size() - 1;
+    }
+
+    // Number of fixed characters; longer templates are more specific
+    public int getLiteralLength() {
+        return literalLength;
+    }
+
+    // First string literal of a logger call, or the whole template when it is plain text
+    private static String extractFormat(String template) {
+        int open = template.indexOf('"');
+        if (open < 0) {
+            return template.trim();
+        }
+        StringBuilder format = new StringBuilder();
+        for (int i = open + 1; i < template.length(); i++) {
+            char c = template.charAt(i);
+            if (c == '\\' && i + 1 < template.length()) {
+                char next = template.charAt(++i);
+                format.append(next == 'n' ? '\n' : next == 't' ? '\t' : next);
+            } else if (c == '"') {
+                return format.toString();
+            } else {
+                format.append(c);
+            }
+        }
+        return template.trim();
+    }
+
+    // Top-level comma-separated expressions between the format literal and the call's closing parenthesis
+    private static List<String> extractArguments(String template) {
+        List<String> arguments = new ArrayList<>();
+        int i = template.indexOf('"');
+        if (i < 0) {
+            return arguments;
+        }
+        for (i++; i < template.length() && template.charAt(i) != '"'; i++) {
+            if (template.charAt(i) == '\\') {
+                i++;
+            }
+        }
+        int depth = 0;
+        StringBuilder argument = null;
+        for (i++; i < template.length(); i++) {
+            char c = template.charAt(i);
+            if (depth == 0 && (c == ',' || c == ')')) {
+                if (argument != null && !argument.toString().isBlank()) {
+                    arguments.add(argument.toString().trim());
+                }
+                if (c == ')') {
+                    break;
+                }
+                argument = new StringBuilder();
+                continue;
+            }
+            if (c == '(') {
+                depth++;
+            } else if (c == ')') {
+                depth--;
+            }
+            if (argument != null) {
+                argument.append(c);
+            }
+        }
+        return arguments;
+    }
+}
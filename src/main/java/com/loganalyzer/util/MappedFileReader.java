@@ -0,0 +1,172 @@
+package com.loganalyzer.util;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+/**
+ * Sequential reader over a memory-mapped file. The file is mapped in
+ * fixed-size windows so files larger than 2 GB can be read as well.
+ *
+ * Each window is unmapped as soon as the reader moves past it and on
+ * {@link #close()}, instead of waiting for the GC to collect the buffer. Java 17
+ * has no public unmap, so this goes through {@code sun.misc.Unsafe.invokeCleaner}
+ * (module jdk.unsupported) and falls back to dropping the reference when that is
+ * unavailable. Buffers must not be touched after they are unmapped.
+ */
+public class MappedFileReader implements Closeable {
+
+    private static final long WINDOW_SIZE = 256L * 1024 * 1024;
+    // Largest single read; a window is remapped early so a value never straddles two windows
+    private static final int MAX_READ = 64 * 1024;
+
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+        Object unsafe = null;
+        Method invokeCleaner = null;
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field field = unsafeClass.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            unsafe = field.get(null);
+            invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            unsafe = null;
+            invokeCleaner = null;
+        }
+        UNSAFE = unsafe;
+        INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private final FileChannel channel;
+    private final long length;
+    private MappedByteBuffer window;
+    private long windowStart;
+
+    public MappedFileReader(FileChannel channel, long length) throws IOException {
+        this.channel = channel;
+        this.length = length;
+        map(0);
+    }
+
+    public long position() {
+        return windowStart + window.position();
+    }
+
+    public long remaining() {
+        return length - position();
+    }
+
+    public byte readByte() throws IOException {
+        ensure(1);
+        return window.get();
+    }
+
+    public int readInt() throws IOException {
+        ensure(4);
+        return window.getInt();
+    }
+
+    public long readLong() throws IOException {
+        ensure(8);
+        return window.getLong();
+    }
+
+    public long readVarLong() throws IOException {
+        ensureUpTo(10);
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = window.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0 && shift < 70);
+        return value;
+    }
+
+    public long readZigZagLong() throws IOException {
+        long raw = readVarLong();
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    public byte[] readBytes(int count) throws IOException {
+        if (count < 0 || count > MAX_READ) {
+            throw new IOException("Invalid record length " + count);
+        }
+        ensure(count);
+        byte[] bytes = new byte[count];
+        window.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * CRC32 over the first {@code count} bytes of the file, computed on the mapped pages.
+     */
+    public long checksum(long count) throws IOException {
+        CRC32 crc = new CRC32();
+        long position = 0;
+        while (position < count) {
+            long size = Math.min(WINDOW_SIZE, count - position);
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+            crc.update(mapped);
+            unmap(mapped);
+            position += size;
+        }
+        return crc.getValue();
+    }
+
+    private void ensure(int bytes) throws IOException {
+        ensureUpTo(bytes);
+        if (window.remaining() < bytes) {
+            throw new EOFException("Unexpected end of snapshot at offset " + position());
+        }
+    }
+
+    // Variable-length values near the end of the file may need fewer bytes than the maximum
+    private void ensureUpTo(int bytes) throws IOException {
+        if (window.remaining() < bytes && windowStart + window.limit() < length) {
+            map(position());
+        }
+    }
+
+    @Override
+    public void close() {
+        MappedByteBuffer current = window;
+        window = null;
+        if (current != null) {
+            unmap(current);
+        }
+    }
+
+    private void map(long position) throws IOException {
+        MappedByteBuffer previous = window;
+        window = null;
+        if (previous != null) {
+            unmap(previous);
+        }
+        windowStart = position;
+        long size = Math.min(WINDOW_SIZE + MAX_READ, length - position);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+    }
+
+    static boolean unmap(MappedByteBuffer buffer) {
+        if (INVOKE_CLEANER == null) {
+            return false;
+        }
+        try {
+            INVOKE_CLEANER.invoke(UNSAFE, buffer);
+            return true;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.loganalyzer.util;
+
+import java.util.regex.Pattern;
+
+/**
+ * Reduces a log message to its template by masking variable parts (UUIDs, IPs,
+ * hex ids, numbers, quoted strings), so occurrences of the same log statement
+ * with different values count as one. Runs as a single scan on the ingest path;
+ * digits inside identifiers that start with a letter (user123, HTTP2) are kept.
+ */
+public final class MessageNormalizer {
+
+    public static final int MAX_TEMPLATE_LENGTH = 200;
+
+    private static final Pattern LIST = Pattern.compile("\\[(?:<[a-z]+>(?:,\\s*)?)+\\]");
+
+    private MessageNormalizer() {}
+
+    public static String normalize(String message) {
+        if (message == null) {
+            return "";
+        }
+        int length = Math.min(message.length(), 4 * MAX_TEMPLATE_LENGTH);
+        StringBuilder template = new StringBuilder(Math.min(length, MAX_TEMPLATE_LENGTH + 16));
+        int i = 0;
+        while (i < length && template.length() < MAX_TEMPLATE_LENGTH) {
+            char c = message.charAt(i);
+            boolean wordStart = i == 0 || !isWordChar(message.charAt(i - 1));
+
+            if (c == '"' || c == '\'') {
+                int close = message.indexOf(c, i + 1);
+                if (close > 0 && close < length) {
+                    template.append("<str>");
+                    i = close + 1;
+                    continue;
+                }
+            }
+            if (!wordStart || !(isWordChar(c) || c == '-' && i + 1 < length && isDigit(message.charAt(i + 1)))) {
+                template.append(c);
+                i++;
+                continue;
+            }
+
+            int end;
+            if ((end = matchUuid(message, i, length)) > 0) {
+                template.append("<uuid>");
+            } else if ((end = matchIp(message, i, length)) > 0) {
+                template.append("<ip>");
+            } else if ((end = matchHex(message, i, length)) > 0) {
+                template.append("<hex>");
+            } else if ((end = matchNumber(message, i, length)) > 0) {
+                template.append("<num>");
+            } else {
+                end = i;
+                while (end < length && isWordChar(message.charAt(end))) {
+                    end++;
+                }
+                template.append(message, i, Math.max(end, i + 1));
+                end = Math.max(end, i + 1);
+            }
+            i = end;
+        }
+
+        String result = template.length() > MAX_TEMPLATE_LENGTH
+            ? template.substring(0, MAX_TEMPLATE_LENGTH) : template.toString();
+        return result.indexOf("[<") >= 0 ? LIST.matcher(result).replaceAll("[<list>]") : result;
+    }
+
+    // 8-4-4-4-12 hex digits not followed by another word character
+    private static int matchUuid(String s, int start, int length) {
+        int i = start;
+        int[] groups = {8, 4, 4, 4, 12};
+        for (int g = 0; g < groups.length; g++) {
+            if (g > 0) {
+                if (i >= length || s.charAt(i) != '-') {
+                    return -1;
+                }
+                i++;
+            }
+            for (int k = 0; k < groups[g]; k++, i++) {
+                if (i >= length || !isHex(s.charAt(i))) {
+                    return -1;
+                }
+            }
+        }
+        return i < length && isWordChar(s.charAt(i)) ? -1 : i;
+    }
+
+    // Dotted quad with an optional :port
+    private static int matchIp(String s, int start, int length) {
+        int i = start;
+        for (int octet = 0; octet < 4; octet++) {
+            if (octet > 0) {
+                if (i >= length || s.charAt(i) != '.') {
+                    return -1;
+                }
+                i++;
+            }
+            int digits = 0;
+            while (i < length && isDigit(s.charAt(i)) && digits < 3) {
+                i++;
+                digits++;
+            }
+            if (digits == 0) {
+                return -1;
+            }
+        }
+        if (i + 1 < length && s.charAt(i) == ':' && isDigit(s.charAt(i + 1))) {
+            i++;
+            while (i < length && isDigit(s.charAt(i))) {
+                i++;
+            }
+        }
+        return i < length && isWordChar(s.charAt(i)) ? -1 : i;
+    }
+
+    // A whole word of at least 8 hex characters with both digits and letters, optionally 0x-prefixed
+    private static int matchHex(String s, int start, int length) {
+        int i = start;
+        if (i + 1 < length && s.charAt(i) == '0' && (s.charAt(i + 1) == 'x' || s.charAt(i + 1) == 'X')) {
+            i += 2;
+        }
+        boolean digit = false;
+        boolean letter = false;
+        int from = i;
+        while (i < length && isHex(s.charAt(i))) {
+            if (isDigit(s.charAt(i))) {
+                digit = true;
+            } else {
+                letter = true;
+            }
+            i++;
+        }
+        if (i - from < 8 || !digit || !letter || i < length && isWordChar(s.charAt(i))) {
+            return -1;
+        }
+        return i;
+    }
+
+    // Optionally negative integer or decimal; letters right after it (500ms) are kept as text
+    private static int matchNumber(String s, int start, int length) {
+        int i = start;
+        if (s.charAt(i) == '-') {
+            i++;
+        }
+        int digitsStart = i;
+        while (i < length && isDigit(s.charAt(i))) {
+            i++;
+        }
+        if (i == digitsStart) {
+            return -1;
+        }
+        if (i + 1 < length && s.charAt(i) == '.' && isDigit(s.charAt(i + 1))) {
+            i++;
+            while (i < length && isDigit(s.charAt(i))) {
+                i++;
+            }
+        }
+        return i;
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isHex(char c) {
+        return c >= '0' && c <= '9' || c >= 'a' && c <= 'f' || c >= 'A' && c <= 'F';
+    }
+}
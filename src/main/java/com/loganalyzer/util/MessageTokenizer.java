@@ -0,0 +1,101 @@
+package com.loganalyzer.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Splits log messages into lookup tokens: lower-cased alphanumeric runs plus the
+ * values of {@code key=value} / {@code key:value} pairs (so hyphenated ids such as
+ * UUIDs are also indexed whole).
+ */
+public final class MessageTokenizer {
+
+    public static final int MIN_TOKEN_LENGTH = 2;
+    public static final int MAX_TOKEN_LENGTH = 64;
+
+    private MessageTokenizer() {}
+
+    public static void tokens(String message, Consumer<String> sink) {
+        if (message != null) {
+            scan(message, (token, value, leftBounded, rightBounded) -> sink.accept(token));
+        }
+    }
+
+    /**
+     * Tokens every matching message is guaranteed to contain.
+     * With {@code substring} semantics ({@code ILIKE '%term%'}) the term may match inside a longer
+     * token, so only tokens delimited on both sides within the term itself are safe to require.
+     * Without it (identifier lookup with token boundaries) every alphanumeric run is required, but
+     * a value token still needs its delimiter inside the term since the value may continue past it.
+     */
+    public static List<String> requiredTokens(String term, boolean substring) {
+        Set<String> required = new LinkedHashSet<>();
+        scan(term, (token, value, leftBounded, rightBounded) -> {
+            if (!(substring || value) || (leftBounded && rightBounded)) {
+                required.add(token);
+            }
+        });
+        return new ArrayList<>(required);
+    }
+
+    private interface TokenSink {
+        void accept(String token, boolean value, boolean leftBounded, boolean rightBounded);
+    }
+
+    private static void scan(String text, TokenSink sink) {
+        int length = text.length();
+        int i = 0;
+        while (i < length) {
+            char c = text.charAt(i);
+            if (!Character.isLetterOrDigit(c)) {
+                if ((c == '=' || c == ':') && i + 1 < length) {
+                    emitValue(text, i + 1, sink);
+                }
+                i++;
+                continue;
+            }
+            int start = i;
+            while (i < length && Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            emit(text, start, i, false, start > 0, i < length, sink);
+        }
+    }
+
+    // A value runs to the next delimiter; trailing sentence punctuation is not part of it
+    private static void emitValue(String text, int start, TokenSink sink) {
+        int end = start;
+        while (end < text.length() && !isValueDelimiter(text.charAt(end))) {
+            end++;
+        }
+        boolean delimited = end < text.length();
+        int trimmed = end;
+        while (trimmed > start && (text.charAt(trimmed - 1) == '.' || text.charAt(trimmed - 1) == ':')) {
+            trimmed--;
+        }
+        // Values that are a single alphanumeric run are already indexed as such
+        for (int i = start; i < trimmed; i++) {
+            if (!Character.isLetterOrDigit(text.charAt(i))) {
+                emit(text, start, trimmed, true, true, delimited, sink);
+                return;
+            }
+        }
+    }
+
+    private static void emit(String text, int start, int end, boolean value, boolean leftBounded,
+                             boolean rightBounded, TokenSink sink) {
+        int length = end - start;
+        if (length >= MIN_TOKEN_LENGTH && length <= MAX_TOKEN_LENGTH) {
+            sink.accept(text.substring(start, end).toLowerCase(Locale.ROOT), value, leftBounded, rightBounded);
+        }
+    }
+
+    private static boolean isValueDelimiter(char c) {
+        return Character.isWhitespace(c) || c == ',' || c == ';' || c == ')' || c == ']' || c == '}'
+            || c == '(' || c == '[' || c == '{' || c == '"' || c == '\'' || c == '&' || c == '|';
+    }
+}
@@ -0,0 +1,104 @@
+package com.loganalyzer.util;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Bloom filter that grows with the number of distinct values it sees (Almeida et al.).
+ * Values go into the newest stage; once that stage is half full, which is its design
+ * capacity with the optimal hash count, a stage of twice the size and a halved
+ * false-positive target is added. The compound false-positive rate therefore stays
+ * below the configured target however many values arrive, until the stages reach
+ * {@code maxBits}; after that the last stage keeps filling and the rate degrades.
+ */
+public class ScalableBloomFilter {
+
+    // Fill ratio of an optimally hashed filter at its design capacity
+    private static final double STAGE_CAPACITY_FILL = 0.5;
+
+    private final double falsePositiveRate;
+    private final long maxBits;
+    private final List<BloomFilter> stages = new CopyOnWriteArrayList<>();
+    private volatile BloomFilter current;
+    private long totalBits;
+
+    public ScalableBloomFilter(long initialBits, double falsePositiveRate, long maxBits) {
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate must be between 0 and 1");
+        }
+        this.falsePositiveRate = falsePositiveRate;
+        this.maxBits = maxBits;
+        addStage(Math.max(64, initialBits));
+    }
+
+    public void put(String value) {
+        BloomFilter stage = current;
+        // Values already (possibly) in an older stage are not added again, so a stage only holds new values
+        for (BloomFilter older : stages) {
+            if (older == stage) {
+                break;
+            }
+            if (older.mightContain(value)) {
+                return;
+            }
+        }
+        if (stage.put(value) && stage.fillRatio() >= STAGE_CAPACITY_FILL) {
+            grow(stage);
+        }
+    }
+
+    public boolean mightContain(String value) {
+        for (BloomFilter stage : stages) {
+            if (stage.mightContain(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int stageCount() {
+        return stages.size();
+    }
+
+    public long sizeInBytes() {
+        long bytes = 0;
+        for (BloomFilter stage : stages) {
+            bytes += stage.sizeInBytes();
+        }
+        return bytes;
+    }
+
+    public double estimatedCount() {
+        double count = 0;
+        for (BloomFilter stage : stages) {
+            count += stage.estimatedCount();
+        }
+        return count;
+    }
+
+    // Chance that a value never added is reported present by at least one stage
+    public double estimatedFalsePositiveRate() {
+        double miss = 1;
+        for (BloomFilter stage : stages) {
+            miss *= 1 - Math.pow(stage.fillRatio(), stage.hashCount());
+        }
+        return 1 - miss;
+    }
+
+    private synchronized void grow(BloomFilter full) {
+        if (full != current || totalBits + full.bitCount() * 2 > maxBits) {
+            return;
+        }
+        addStage(full.bitCount() * 2);
+    }
+
+    private synchronized void addStage(long bits) {
+        // Stage i targets rate / 2^(i+1), so the stages together stay below the configured rate
+        double stageRate = falsePositiveRate / (2L << stages.size());
+        int hashes = (int) Math.ceil(-Math.log(stageRate) / Math.log(2));
+        BloomFilter stage = new BloomFilter(bits, hashes);
+        stages.add(stage);
+        totalBits += stage.bitCount();
+        current = stage;
+    }
+}
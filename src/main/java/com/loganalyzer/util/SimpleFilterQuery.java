@@ -0,0 +1,156 @@
+package com.loganalyzer.util;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Recognizes filter-style generated SQL over log_entries:
+ * {@code SELECT [DISTINCT] <columns> FROM log_entries [alias] WHERE <condition>
+ * ORDER BY [alias.]timestamp [ASC|DESC] [LIMIT n]}.
+ * Anything with joins, CTEs, subqueries, set operations or aggregates is rejected,
+ * so callers can rewrite the condition without changing the query's meaning.
+ */
+public final class SimpleFilterQuery {
+
+    private static final Pattern SHAPE = Pattern.compile(
+        "^select\\s+(?<distinct>distinct\\s+)?(?<columns>.+?)\\s+from\\s+log_entries"
+            + "(?:\\s+(?:as\\s+)?(?<alias>(?!where\\b)[a-z_][a-z0-9_]*))?"
+            + "\\s+where\\s+(?<condition>.+?)"
+            + "\\s+order\\s+by\\s+(?<order>(?:[a-z_][a-z0-9_]*\\.)?timestamp)(?:\\s+(?<direction>asc|desc))?"
+            + "(?:\\s+limit\\s+(?<limit>\\d+))?\\s*$",
+        Pattern.DOTALL);
+
+    private static final Pattern FORBIDDEN = Pattern.compile(
+        "\\b(select|join|union|intersect|except|group|having|over|with|offset|fetch|for)\\b|;|--|/\\*");
+
+    private final boolean distinct;
+    private final String columns;
+    private final String alias;
+    private final String condition;
+    private final String orderColumn;
+    private final boolean descending;
+    private final Integer limit;
+
+    private SimpleFilterQuery(boolean distinct, String columns, String alias, String condition,
+                              String orderColumn, boolean descending, Integer limit) {
+        this.distinct = distinct;
+        this.columns = columns;
+        this.alias = alias;
+        this.condition = condition;
+        this.orderColumn = orderColumn;
+        this.descending = descending;
+        this.limit = limit;
+    }
+
+    /**
+     * Returns null when the query does not have the simple filter shape.
+     */
+    public static SimpleFilterQuery parse(String generatedSql) {
+        String sql = generatedSql.trim();
+        if (sql.endsWith(";")) {
+            sql = sql.substring(0, sql.length() - 1).trim();
+        }
+        // Mask string literals (keeping offsets) so keywords inside them are ignored
+        String masked = maskLiterals(sql);
+        if (masked == null) {
+            return null;
+        }
+        String lower = masked.toLowerCase(Locale.ROOT);
+        if (lower.length() != sql.length()) {
+            return null;
+        }
+        Matcher matcher = SHAPE.matcher(lower);
+        if (!matcher.matches()) {
+            return null;
+        }
+        String maskedColumns = lower.substring(matcher.start("columns"), matcher.end("columns"));
+        String maskedCondition = lower.substring(matcher.start("condition"), matcher.end("condition"));
+        if (maskedColumns.contains("(") || FORBIDDEN.matcher(maskedColumns).find()
+                || FORBIDDEN.matcher(maskedCondition).find()) {
+            return null;
+        }
+
+        boolean distinct = matcher.group("distinct") != null;
+        // DISTINCT is only preserved across slices when rows in different slices can never be equal
+        if (distinct && !(maskedColumns.equals("*") || maskedColumns.matches("(?s).*(^|[\\s,.])timestamp\\s*(,|$).*"))) {
+            return null;
+        }
+
+        String alias = matcher.group("alias") != null ? sql.substring(matcher.start("alias"), matcher.end("alias")) : null;
+        String orderColumn = sql.substring(matcher.start("order"), matcher.end("order"));
+        if (orderColumn.contains(".") && (alias == null
+                || !orderColumn.substring(0, orderColumn.indexOf('.')).equalsIgnoreCase(alias))) {
+            return null;
+        }
+        Integer limit = matcher.group("limit") != null ? Integer.valueOf(matcher.group("limit")) : null;
+        return new SimpleFilterQuery(
+            distinct,
+            sql.substring(matcher.start("columns"), matcher.end("columns")),
+            alias,
+            sql.substring(matcher.start("condition"), matcher.end("condition")),
+            orderColumn,
+            "desc".equals(matcher.group("direction")),
+            limit);
+    }
+
+    /**
+     * Rebuild the query with an extra condition ANDed onto the original WHERE clause.
+     */
+    public String withExtraCondition(String extraCondition) {
+        StringBuilder sql = new StringBuilder("SELECT ");
+        if (distinct) {
+            sql.append("DISTINCT ");
+        }
+        sql.append(columns).append(" FROM log_entries");
+        if (alias != null) {
+            sql.append(' ').append(alias);
+        }
+        sql.append(" WHERE (").append(condition).append(") AND ").append(extraCondition);
+        sql.append(" ORDER BY ").append(orderColumn).append(descending ? " DESC" : " ASC");
+        if (limit != null) {
+            sql.append(" LIMIT ").append(limit);
+        }
+        return sql.toString();
+    }
+
+    // Column reference for timestamp, qualified with the table alias when one is used
+    public String timestampColumn() {
+        return alias != null ? alias + ".timestamp" : "timestamp";
+    }
+
+    public String getCondition() {
+        return condition;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    private static String maskLiterals(String sql) {
+        StringBuilder masked = new StringBuilder(sql.length());
+        boolean inLiteral = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                if (inLiteral && i + 1 < sql.length() && sql.charAt(i + 1) == '\'') {
+                    masked.append("xx");
+                    i++;
+                    continue;
+                }
+                inLiteral = !inLiteral;
+                masked.append(c);
+            } else if (c == '"' && !inLiteral) {
+                // Quoted identifiers are not expected in generated filter queries
+                return null;
+            } else {
+                masked.append(inLiteral ? 'x' : c);
+            }
+        }
+        return inLiteral ? null : masked.toString();
+    }
+}
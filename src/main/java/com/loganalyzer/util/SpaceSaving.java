@@ -0,0 +1,144 @@
+package com.loganalyzer.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving heavy-hitter sketch over at most {@code capacity} keys. When full,
+ * a new key replaces the current minimum and inherits its count as the error
+ * bound, so every key with a true count above total/capacity is guaranteed to
+ * be tracked and reported counts never underestimate.
+ */
+public class SpaceSaving {
+
+    public static class Counter {
+        private final String key;
+        private final long count;
+        private final long error;
+
+        public Counter(String key, long count, long error) {
+            this.key = key;
+            this.count = count;
+            this.error = error;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        // Upper bound on how much of the count belongs to keys this one replaced
+        public long getError() {
+            return error;
+        }
+    }
+
+    private static class Slot {
+        private String key;
+        private long count;
+        private long error;
+        private int heapIndex;
+    }
+
+    private final int capacity;
+    private final Map<String, Slot> slots;
+    // Min-heap on count, so the eviction victim is always at the root
+    private final Slot[] heap;
+    private int size;
+    private long total;
+
+    public SpaceSaving(int capacity) {
+        this.capacity = capacity;
+        this.slots = new HashMap<>(capacity * 2);
+        this.heap = new Slot[capacity];
+    }
+
+    public synchronized void add(String key) {
+        total++;
+        Slot slot = slots.get(key);
+        if (slot != null) {
+            slot.count++;
+            siftDown(slot.heapIndex);
+            return;
+        }
+        if (size < capacity) {
+            slot = new Slot();
+            slot.key = key;
+            slot.count = 1;
+            slot.heapIndex = size;
+            heap[size++] = slot;
+            slots.put(key, slot);
+            siftUp(slot.heapIndex);
+            return;
+        }
+        Slot victim = heap[0];
+        slots.remove(victim.key);
+        victim.key = key;
+        victim.error = victim.count;
+        victim.count++;
+        slots.put(key, victim);
+        siftDown(0);
+    }
+
+    public synchronized List<Counter> counters() {
+        List<Counter> counters = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            counters.add(new Counter(heap[i].key, heap[i].count, heap[i].error));
+        }
+        counters.sort(Comparator.comparingLong(Counter::getCount).reversed());
+        return counters;
+    }
+
+    public synchronized long getTotal() {
+        return total;
+    }
+
+    // Smallest tracked count: any untracked key occurred at most this often
+    public synchronized long getMinimum() {
+        return size < capacity ? 0 : heap[0].count;
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (heap[parent].count <= heap[index].count) {
+                return;
+            }
+            swap(parent, index);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int smallest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && heap[left].count < heap[smallest].count) {
+                smallest = left;
+            }
+            if (right < size && heap[right].count < heap[smallest].count) {
+                smallest = right;
+            }
+            if (smallest == index) {
+                return;
+            }
+            swap(smallest, index);
+            index = smallest;
+        }
+    }
+
+    private void swap(int a, int b) {
+        Slot first = heap[a];
+        heap[a] = heap[b];
+        heap[b] = first;
+        heap[a].heapIndex = a;
+        heap[b].heapIndex = b;
+    }
+}
@@ -0,0 +1,346 @@
+package com.loganalyzer.util;
+
+import com.loganalyzer.model.LogEntry;
+import com.loganalyzer.model.LogPattern;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Produces realistic log_entries from LogPattern templates. Templates that carry a
+ * traceId or requestId become multi-step flows sharing that id; flows interleave,
+ * most end with the INFO steps and some end in a WARN/ERROR step, far more often
+ * inside periodic error bursts. User, IP and communication ids follow a Zipf
+ * distribution. Timestamps advance at {@code ratePerSecond} of simulated time.
+ */
+public class SyntheticLogGenerator implements Iterator<LogEntry> {
+
+    public static final long MAX_ROWS = 100_000_000L;
+
+    private static final int MAX_MESSAGE_LENGTH = 2000;
+
+    // Templates from the team's sample data, used when no LogPattern is configured
+    private static final List<String[]> DEFAULT_TEMPLATES = List.of(
+        new String[] {"INFO", "logger.info(\"Started mass sending communication. CommunicationId:{}. traceId:{}\", communication.getId(), traceId);"},
+        new String[] {"INFO", "logger.info(\"Communication recipients calculated. Result user ids to send:{}. traceId:{}\", resultUserIdList.toString(), traceId);"},
+        new String[] {"INFO", "logger.info(\"Start send communication for userId:{}. traceId:{}\", userId, traceId);"},
+        new String[] {"INFO", "logger.info(\"Communication send skipped. User has no subscription. userId:{}, traceId:{}\", useId, traceId);"},
+        new String[] {"INFO", "logger.info(\"Communication send successfully for userId:{}. traceId:{}\", userId, traceId);"},
+        new String[] {"WARN", "logger.warn(\"Communication send attemp failed for userId:{}. traceId:{}. Retrying\", userId, traceId);"},
+        new String[] {"ERROR", "logger.error(\"Communication send failed for userId:{}. traceId:{}. Reason:{}\", userId, traceId, ex.getCause());"},
+        new String[] {"INFO", "logger.info(\"process started for requestId={}\", requestId);"},
+        new String[] {"INFO", "logger.info(\"start send message. userId={}, requestId={}\", user.getId(), requestId);"},
+        new String[] {"INFO", "logger.info(\"process step completed. requestId={}\", requestId);"},
+        new String[] {"INFO", "logger.info(\"send completed success. requestId={}\", requestId);"},
+        new String[] {"WARN", "logger.warn(\"send failed. requestId={}\", requestId);"},
+        new String[] {"ERROR", "logger.error(\"process failed. requestId={}\", requestId);"},
+        new String[] {"INFO", "logger.info(\"User {} logged in from ip {}\", user.getName(), ipAddress);"},
+        new String[] {"INFO", "logger.info(\"system healthcheck. status=working\");"},
+        new String[] {"WARN", "logger.warn(\"High memory usage detected: {}%\", memoryPercent);"},
+        new String[] {"ERROR", "logger.error(\"Database connection failed: {}\", ex.getCause());"});
+
+    private static final String[] EXCEPTIONS = {
+        "java.net.SocketTimeoutException: Read timed out",
+        "java.sql.SQLTransientConnectionException: HikariPool-1 - Connection is not available, request timed out after 30000ms",
+        "org.springframework.web.client.HttpServerErrorException$ServiceUnavailable: 503 Service Unavailable",
+        "java.lang.IllegalStateException: Subscription not found",
+        "java.net.ConnectException: Connection refused"
+    };
+
+    enum ValueKind {
+        TRACE_ID, REQUEST_ID, USER_ID, USER_NAME, USER_ID_LIST, IP, PERCENT, COMMUNICATION_ID, EXCEPTION, NUMBER
+    }
+
+    private static class Template {
+        private final String level;
+        private final LogTemplate compiled;
+        private final ValueKind[] kinds;
+
+        private Template(String level, LogTemplate compiled, ValueKind[] kinds) {
+            this.level = level;
+            this.compiled = compiled;
+            this.kinds = kinds;
+        }
+
+        private boolean uses(ValueKind kind) {
+            return Arrays.asList(kinds).contains(kind);
+        }
+
+        private boolean isFailure() {
+            return "ERROR".equalsIgnoreCase(level) || "WARN".equalsIgnoreCase(level);
+        }
+    }
+
+    // A correlated sequence of templates sharing one traceId or requestId
+    private static class Flow {
+        private final List<Template> steps;
+        private final String correlationId;
+        private final int userId;
+        private final int communicationId;
+        private int next;
+
+        private Flow(List<Template> steps, String correlationId, int userId, int communicationId) {
+            this.steps = steps;
+            this.correlationId = correlationId;
+            this.userId = userId;
+            this.communicationId = communicationId;
+        }
+    }
+
+    private final Random random;
+    private final List<List<Template>> flowKinds = new ArrayList<>();
+    private final List<Template> background = new ArrayList<>();
+    private final List<Flow> activeFlows = new ArrayList<>();
+    private final ZipfSampler users;
+    private final ZipfSampler ips;
+    private final ZipfSampler communications;
+    private final double ratePerSecond;
+    private final LocalDateTime start;
+
+    private long rows;
+    private long emitted;
+    private double elapsedSeconds;
+
+    private int concurrentFlows = 64;
+    private double backgroundShare = 0.05;
+    private double errorRate = 0.02;
+    private long burstEverySeconds = 6 * 3600;
+    private long burstSeconds = 600;
+    private double burstMultiplier = 15;
+
+    public SyntheticLogGenerator(List<LogPattern> patterns, long rows, double ratePerSecond,
+                                 LocalDateTime start, long seed) {
+        if (rows < 0 || rows > MAX_ROWS) {
+            throw new IllegalArgumentException("rows must be between 0 and " + MAX_ROWS);
+        }
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("rate must be positive");
+        }
+        this.rows = rows;
+        this.ratePerSecond = ratePerSecond;
+        this.start = start;
+        this.random = new Random(seed);
+        this.users = new ZipfSampler(1_000_000, 1.1);
+        this.ips = new ZipfSampler(50_000, 1.2);
+        this.communications = new ZipfSampler(5_000, 1.0);
+
+        List<Template> traceFlow = new ArrayList<>();
+        List<Template> requestFlow = new ArrayList<>();
+        for (LogPattern pattern : patterns.isEmpty() ? defaultPatterns() : patterns) {
+            Template template = compile(pattern);
+            if (template.uses(ValueKind.TRACE_ID)) {
+                traceFlow.add(template);
+            } else if (template.uses(ValueKind.REQUEST_ID)) {
+                requestFlow.add(template);
+            } else {
+                background.add(template);
+            }
+        }
+        if (!traceFlow.isEmpty()) {
+            flowKinds.add(traceFlow);
+        }
+        if (!requestFlow.isEmpty()) {
+            flowKinds.add(requestFlow);
+        }
+    }
+
+    public static List<LogPattern> defaultPatterns() {
+        List<LogPattern> patterns = new ArrayList<>();
+        long id = 1;
+        for (String[] template : DEFAULT_TEMPLATES) {
+            patterns.add(new LogPattern(id++, template[0], template[1]));
+        }
+        return patterns;
+    }
+
+    // Flows in progress at once; more flows interleave more correlation ids between consecutive rows
+    public SyntheticLogGenerator withConcurrentFlows(int concurrentFlows) {
+        if (concurrentFlows < 1) {
+            throw new IllegalArgumentException("flows must be at least 1");
+        }
+        this.concurrentFlows = concurrentFlows;
+        return this;
+    }
+
+    // Share of flows that end in a WARN/ERROR step outside bursts
+    public SyntheticLogGenerator withErrorRate(double errorRate) {
+        if (errorRate < 0 || errorRate > 1) {
+            throw new IllegalArgumentException("errorRate must be between 0 and 1");
+        }
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    // Every burstEverySeconds of simulated time, failures are burstMultiplier times likelier for burstSeconds
+    public SyntheticLogGenerator withErrorBursts(long burstEverySeconds, long burstSeconds, double burstMultiplier) {
+        if (burstEverySeconds < 1 || burstSeconds < 0 || burstSeconds > burstEverySeconds || burstMultiplier < 1) {
+            throw new IllegalArgumentException(
+                "Bursts need burstEverySeconds >= 1, 0 <= burstSeconds <= burstEverySeconds and burstMultiplier >= 1");
+        }
+        this.burstEverySeconds = burstEverySeconds;
+        this.burstSeconds = burstSeconds;
+        this.burstMultiplier = burstMultiplier;
+        return this;
+    }
+
+    // Unbounded generation for load tests that stop on their own schedule
+    public SyntheticLogGenerator unbounded() {
+        this.rows = Long.MAX_VALUE;
+        return this;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return emitted < rows;
+    }
+
+    @Override
+    public LogEntry next() {
+        elapsedSeconds += -Math.log(1 - random.nextDouble()) / ratePerSecond;
+        LocalDateTime timestamp = start.plusNanos((long) (elapsedSeconds * 1_000_000_000L));
+        emitted++;
+
+        if (flowKinds.isEmpty() || (!background.isEmpty() && random.nextDouble() < backgroundShare)) {
+            Template template = background.get(random.nextInt(background.size()));
+            return entry(timestamp, template, null);
+        }
+        while (activeFlows.size() < concurrentFlows) {
+            activeFlows.add(newFlow());
+        }
+        int index = random.nextInt(activeFlows.size());
+        Flow flow = activeFlows.get(index);
+        Template step = flow.steps.get(flow.next++);
+        if (flow.next >= flow.steps.size()) {
+            activeFlows.set(index, newFlow());
+        }
+        return entry(timestamp, step, flow);
+    }
+
+    public long getEmitted() {
+        return emitted;
+    }
+
+    private Flow newFlow() {
+        List<Template> kind = flowKinds.get(random.nextInt(flowKinds.size()));
+        List<Template> normal = new ArrayList<>();
+        List<Template> failures = new ArrayList<>();
+        for (Template template : kind) {
+            (template.isFailure() ? failures : normal).add(template);
+        }
+
+        List<Template> steps = new ArrayList<>(normal);
+        boolean inBurst = burstEverySeconds > 0 && (long) elapsedSeconds % burstEverySeconds < burstSeconds;
+        double failureChance = Math.min(1.0, errorRate * (inBurst ? burstMultiplier : 1));
+        if (!failures.isEmpty() && !normal.isEmpty() && random.nextDouble() < failureChance) {
+            // Fail after a random step: an optional WARN retry, then the terminal failure
+            steps = new ArrayList<>(normal.subList(0, 1 + random.nextInt(normal.size())));
+            Template terminal = failures.get(failures.size() - 1);
+            for (Template failure : failures) {
+                if (failure != terminal && "WARN".equalsIgnoreCase(failure.level) && random.nextBoolean()) {
+                    steps.add(failure);
+                }
+            }
+            steps.add(terminal);
+        } else if (steps.isEmpty()) {
+            steps.add(kind.get(0));
+        }
+        String correlationId = new UUID(random.nextLong(), random.nextLong()).toString();
+        return new Flow(steps, correlationId, users.sample(random), communications.sample(random));
+    }
+
+    private LogEntry entry(LocalDateTime timestamp, Template template, Flow flow) {
+        List<String> fragments = template.compiled.getFragments();
+        StringBuilder message = new StringBuilder(fragments.get(0));
+        for (int i = 1; i < fragments.size(); i++) {
+            message.append(value(template.kinds[i - 1], flow)).append(fragments.get(i));
+        }
+        String text = message.length() > MAX_MESSAGE_LENGTH ? message.substring(0, MAX_MESSAGE_LENGTH) : message.toString();
+        return new LogEntry(null, timestamp, template.level.toUpperCase(Locale.ROOT), text);
+    }
+
+    private String value(ValueKind kind, Flow flow) {
+        switch (kind) {
+            case TRACE_ID:
+            case REQUEST_ID:
+                return flow != null ? flow.correlationId : new UUID(random.nextLong(), random.nextLong()).toString();
+            case USER_ID:
+                return String.valueOf(flow != null ? flow.userId : users.sample(random));
+            case USER_NAME:
+                return "user" + (flow != null ? flow.userId : users.sample(random));
+            case USER_ID_LIST:
+                StringBuilder list = new StringBuilder("[");
+                int count = 1 + random.nextInt(5);
+                for (int i = 0; i < count; i++) {
+                    list.append(i > 0 ? ", " : "").append(users.sample(random));
+                }
+                return list.append(']').toString();
+            case IP:
+                int ip = ips.sample(random);
+                return "10." + (ip >> 16 & 0xff) + "." + (ip >> 8 & 0xff) + "." + (ip & 0xff);
+            case PERCENT:
+                return String.valueOf(85 + random.nextInt(15));
+            case COMMUNICATION_ID:
+                return String.valueOf(flow != null ? flow.communicationId : communications.sample(random));
+            case EXCEPTION:
+                return EXCEPTIONS[random.nextInt(EXCEPTIONS.length)];
+            default:
+                return String.valueOf(1 + random.nextInt(1000));
+        }
+    }
+
+    private static Template compile(LogPattern pattern) {
+        LogTemplate compiled = LogTemplate.parse(pattern.getLogTemplate());
+        List<String> fragments = compiled.getFragments();
+        List<String> arguments = compiled.getArguments();
+        ValueKind[] kinds = new ValueKind[compiled.getPlaceholderCount()];
+        for (int i = 0; i < kinds.length; i++) {
+            // The argument expression names the value best; plain-text templates fall back to the preceding text
+            ValueKind kind = i < arguments.size() ? kindOf(arguments.get(i).toLowerCase(Locale.ROOT)) : ValueKind.NUMBER;
+            kinds[i] = kind != ValueKind.NUMBER ? kind : kindOf(tail(fragments.get(i)).toLowerCase(Locale.ROOT));
+        }
+        String level = pattern.getLogLevel() != null ? pattern.getLogLevel() : "INFO";
+        return new Template(level, compiled, kinds);
+    }
+
+    static ValueKind kindOf(String hint) {
+        if (hint.contains("traceid")) {
+            return ValueKind.TRACE_ID;
+        }
+        if (hint.contains("requestid")) {
+            return ValueKind.REQUEST_ID;
+        }
+        if (hint.contains("list") || hint.contains("ids")) {
+            return ValueKind.USER_ID_LIST;
+        }
+        if (hint.contains("communication")) {
+            return ValueKind.COMMUNICATION_ID;
+        }
+        if (hint.contains("name")) {
+            return ValueKind.USER_NAME;
+        }
+        if (hint.contains("ip")) {
+            return ValueKind.IP;
+        }
+        if (hint.contains("percent")) {
+            return ValueKind.PERCENT;
+        }
+        if (hint.contains("cause") || hint.contains("ex.") || hint.contains("reason") || hint.contains("exception")) {
+            return ValueKind.EXCEPTION;
+        }
+        if (hint.contains("id")) {
+            return ValueKind.USER_ID;
+        }
+        return ValueKind.NUMBER;
+    }
+
+    private static String tail(String fragment) {
+        return fragment.length() > 24 ? fragment.substring(fragment.length() - 24) : fragment;
+    }
+}
@@ -0,0 +1,295 @@
+package com.loganalyzer.util;
+
+import com.loganalyzer.model.LogEntry;
+
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+
+/**
+ * Hand-written parsers for RFC 5424 / RFC 3164 syslog frames and plain text lines.
+ * Scans characters directly instead of using regular expressions so the
+ * receivers can parse every frame without per-line pattern matching.
+ */
+public final class SyslogParser {
+
+    public static final int MAX_MESSAGE_LENGTH = 2000;
+
+    private static final String[] MONTHS = {
+        "Jan", "Feb", "Mar", "Apr", "May", "Jun", "Jul", "Aug", "Sep", "Oct", "Nov", "Dec"
+    };
+
+    private SyslogParser() {}
+
+    /**
+     * Parse a syslog frame. Frames that are not valid syslog are kept as raw lines
+     * so no data is lost.
+     */
+    public static LogEntry parseSyslog(String frame, LocalDateTime receivedAt) {
+        String line = stripLineEnd(frame);
+        if (line.isEmpty()) {
+            return null;
+        }
+        if (line.charAt(0) != '<') {
+            return parseRaw(line, receivedAt);
+        }
+
+        int close = line.indexOf('>');
+        if (close < 2 || close > 4) {
+            return parseRaw(line, receivedAt);
+        }
+        int priority = parseDigits(line, 1, close);
+        if (priority < 0 || priority > 191) {
+            return parseRaw(line, receivedAt);
+        }
+        String level = severityToLevel(priority & 7);
+
+        int pos = close + 1;
+        if (pos + 1 < line.length() && isDigit(line.charAt(pos)) && line.charAt(pos + 1) == ' ') {
+            return parseRfc5424(line, pos + 2, level, receivedAt);
+        }
+        return parseRfc3164(line, pos, level, receivedAt);
+    }
+
+    /**
+     * Parse a plain text line: optional leading ISO-8601 timestamp, optional level word, message.
+     */
+    public static LogEntry parseRaw(String frame, LocalDateTime receivedAt) {
+        String line = stripLineEnd(frame);
+        if (line.isEmpty()) {
+            return null;
+        }
+
+        LocalDateTime timestamp = receivedAt;
+        int pos = 0;
+        int end = nextSpace(line, pos);
+        if (end > pos && isDigit(line.charAt(pos))) {
+            LocalDateTime parsed = parseIsoTimestamp(line.substring(pos, end));
+            if (parsed != null) {
+                timestamp = parsed;
+                pos = skipSpaces(line, end);
+                end = nextSpace(line, pos);
+            }
+        }
+
+        String level = "INFO";
+        String candidate = end > pos ? normalizeLevel(line, pos, end) : null;
+        if (candidate != null) {
+            level = candidate;
+            pos = skipSpaces(line, end);
+        }
+        return newEntry(timestamp, level, line.substring(pos));
+    }
+
+    private static LogEntry parseRfc5424(String line, int pos, String level, LocalDateTime receivedAt) {
+        // TIMESTAMP HOSTNAME APP-NAME PROCID MSGID
+        int end = nextSpace(line, pos);
+        if (end < 0) {
+            return parseRaw(line, receivedAt);
+        }
+        LocalDateTime timestamp = receivedAt;
+        if (!(end - pos == 1 && line.charAt(pos) == '-')) {
+            LocalDateTime parsed = parseIsoTimestamp(line.substring(pos, end));
+            if (parsed != null) {
+                timestamp = parsed;
+            }
+        }
+        pos = end + 1;
+        for (int field = 0; field < 4; field++) {
+            end = nextSpace(line, pos);
+            if (end < 0) {
+                return newEntry(timestamp, level, "");
+            }
+            pos = end + 1;
+        }
+
+        // STRUCTURED-DATA: "-" or one or more [id param="value"] elements
+        if (pos < line.length() && line.charAt(pos) == '-') {
+            pos++;
+        } else {
+            while (pos < line.length() && line.charAt(pos) == '[') {
+                pos = skipStructuredElement(line, pos);
+            }
+        }
+        if (pos < line.length() && line.charAt(pos) == ' ') {
+            pos++;
+        }
+        if (pos < line.length() && line.charAt(pos) == '\uFEFF') {
+            pos++;
+        }
+        return newEntry(timestamp, level, line.substring(Math.min(pos, line.length())));
+    }
+
+    private static LogEntry parseRfc3164(String line, int pos, String level, LocalDateTime receivedAt) {
+        // "Mmm dd hh:mm:ss HOSTNAME TAG: MSG"
+        LocalDateTime timestamp = parseBsdTimestamp(line, pos, receivedAt);
+        if (timestamp == null) {
+            return newEntry(receivedAt, level, line.substring(pos));
+        }
+        pos += 15;
+        pos = skipSpaces(line, pos);
+        int end = nextSpace(line, pos);
+        if (end < 0 || end >= line.length()) {
+            return newEntry(timestamp, level, "");
+        }
+        pos = end + 1;
+
+        // Strip "tag:" or "tag[pid]:" when present
+        int tagEnd = pos;
+        while (tagEnd < line.length() && tagEnd - pos <= 48) {
+            char c = line.charAt(tagEnd);
+            if (c == ':' || c == '[') {
+                break;
+            }
+            if (c == ' ') {
+                tagEnd = -1;
+                break;
+            }
+            tagEnd++;
+        }
+        if (tagEnd > pos && tagEnd < line.length()) {
+            int colon = line.charAt(tagEnd) == '[' ? line.indexOf("]:", tagEnd) + 1 : tagEnd;
+            if (colon > 0 && line.charAt(colon) == ':') {
+                pos = skipSpaces(line, colon + 1);
+            }
+        }
+        return newEntry(timestamp, level, line.substring(pos));
+    }
+
+    private static LocalDateTime parseBsdTimestamp(String line, int pos, LocalDateTime receivedAt) {
+        if (line.length() < pos + 15 || line.charAt(pos + 3) != ' ' || line.charAt(pos + 6) != ' '
+                || line.charAt(pos + 9) != ':' || line.charAt(pos + 12) != ':') {
+            return null;
+        }
+        int month = -1;
+        for (int i = 0; i < MONTHS.length; i++) {
+            if (line.regionMatches(pos, MONTHS[i], 0, 3)) {
+                month = i + 1;
+                break;
+            }
+        }
+        int day = parseDigits(line, line.charAt(pos + 4) == ' ' ? pos + 5 : pos + 4, pos + 6);
+        int hour = parseDigits(line, pos + 7, pos + 9);
+        int minute = parseDigits(line, pos + 10, pos + 12);
+        int second = parseDigits(line, pos + 13, pos + 15);
+        if (month < 0 || day < 1 || day > 31 || hour < 0 || hour > 23 || minute < 0 || minute > 59
+                || second < 0 || second > 60) {
+            return null;
+        }
+        try {
+            // RFC 3164 has no year: assume the current one unless that puts the event in the future
+            LocalDateTime timestamp = LocalDateTime.of(receivedAt.getYear(), Month.of(month), day,
+                hour, minute, Math.min(second, 59));
+            return timestamp.isAfter(receivedAt.plusDays(1)) ? timestamp.minusYears(1) : timestamp;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static LocalDateTime parseIsoTimestamp(String value) {
+        try {
+            if (value.endsWith("Z") || value.lastIndexOf('+') > 0 || value.lastIndexOf('-') > 9) {
+                return OffsetDateTime.parse(value).atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+            }
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static int skipStructuredElement(String line, int pos) {
+        boolean quoted = false;
+        for (int i = pos + 1; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '\\' && quoted) {
+                i++;
+            } else if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ']' && !quoted) {
+                return i + 1;
+            }
+        }
+        return line.length();
+    }
+
+    private static String normalizeLevel(String line, int start, int end) {
+        int length = end - start;
+        if (length < 4 || length > 7) {
+            return null;
+        }
+        String word = line.substring(start, end).toUpperCase();
+        switch (word) {
+            case "TRACE":
+            case "DEBUG":
+            case "INFO":
+            case "WARN":
+            case "ERROR":
+                return word;
+            case "WARNING":
+                return "WARN";
+            case "FATAL":
+                return "ERROR";
+            default:
+                return null;
+        }
+    }
+
+    private static String severityToLevel(int severity) {
+        if (severity <= 3) {
+            return "ERROR";
+        }
+        if (severity == 4) {
+            return "WARN";
+        }
+        return severity == 7 ? "DEBUG" : "INFO";
+    }
+
+    private static LogEntry newEntry(LocalDateTime timestamp, String level, String message) {
+        String trimmed = message.length() > MAX_MESSAGE_LENGTH ? message.substring(0, MAX_MESSAGE_LENGTH) : message;
+        return new LogEntry(null, timestamp, level, trimmed);
+    }
+
+    private static String stripLineEnd(String line) {
+        int end = line.length();
+        while (end > 0 && (line.charAt(end - 1) == '\n' || line.charAt(end - 1) == '\r' || line.charAt(end - 1) == '\0')) {
+            end--;
+        }
+        return end == line.length() ? line : line.substring(0, end);
+    }
+
+    private static int parseDigits(String line, int start, int end) {
+        if (start >= end || end > line.length()) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = line.charAt(i);
+            if (!isDigit(c)) {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static int nextSpace(String line, int from) {
+        if (from >= line.length()) {
+            return -1;
+        }
+        int space = line.indexOf(' ', from);
+        return space < 0 ? line.length() : space;
+    }
+
+    private static int skipSpaces(String line, int pos) {
+        while (pos < line.length() && line.charAt(pos) == ' ') {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,104 @@
+package com.loganalyzer.dto;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.loganalyzer.model.LogEntry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarLogsTest {
+
+    private static final List<String> ALL_FIELDS = List.of("id", "timestamp", "logLevel", "message");
+    private static final LocalDateTime AT = LocalDateTime.of(2024, 1, 1, 12, 0, 0);
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private JsonNode serialize(List<LogEntry> logs, List<String> fields, int maxMessageLength) throws Exception {
+        return objectMapper.readTree(objectMapper.writeValueAsString(new ColumnarLogs(logs, fields, maxMessageLength)));
+    }
+
+    private static List<String> texts(JsonNode array) {
+        List<String> texts = new ArrayList<>();
+        array.forEach(node -> texts.add(node.asText()));
+        return texts;
+    }
+
+    @Test
+    void writesOneArrayPerFieldWithALevelDictionary() throws Exception {
+        JsonNode json = serialize(List.of(
+            new LogEntry(7L, AT, "INFO", "a"),
+            new LogEntry(8L, AT.plusSeconds(1), "ERROR", "b"),
+            new LogEntry(9L, AT.plusSeconds(2), "INFO", "c")), ALL_FIELDS, 0);
+
+        assertEquals(3, json.get("count").asInt());
+        assertEquals(ALL_FIELDS, texts(json.get("fields")));
+        assertEquals(List.of("INFO", "ERROR"), texts(json.get("levels")));
+        JsonNode columns = json.get("columns");
+        assertEquals("[7,8,9]", columns.get("id").toString());
+        long millis = AT.toInstant(ZoneOffset.UTC).toEpochMilli();
+        assertEquals("[" + millis + "," + (millis + 1000) + "," + (millis + 2000) + "]", columns.get("timestamp").toString());
+        assertEquals("[0,1,0]", columns.get("logLevel").toString());
+        assertEquals("[\"a\",\"b\",\"c\"]", columns.get("message").toString());
+        assertEquals(0, json.get("maxMessageLength").asInt());
+        assertEquals(0, json.get("truncated").size());
+    }
+
+    @Test
+    void projectionKeepsOnlyTheRequestedFieldsInOrder() throws Exception {
+        JsonNode json = serialize(List.of(new LogEntry(7L, AT, "WARN", "slow")), List.of("message", "id"), 0);
+
+        assertEquals(List.of("message", "id"), texts(json.get("fields")));
+        List<String> columnNames = new ArrayList<>();
+        json.get("columns").fieldNames().forEachRemaining(columnNames::add);
+        assertEquals(List.of("message", "id"), columnNames);
+        // Levels are only listed when the logLevel column is projected
+        assertEquals(0, json.get("levels").size());
+    }
+
+    @Test
+    void nullLevelAndTimestampAreWrittenAsNull() throws Exception {
+        JsonNode json = serialize(List.of(
+            new LogEntry(1L, null, null, null),
+            new LogEntry(2L, AT, "DEBUG", "x")), ALL_FIELDS, 10);
+
+        JsonNode columns = json.get("columns");
+        assertTrue(columns.get("timestamp").get(0).isNull());
+        assertTrue(columns.get("logLevel").get(0).isNull());
+        assertTrue(columns.get("message").get(0).isNull());
+        assertEquals(0, columns.get("logLevel").get(1).asInt());
+        assertEquals(List.of("DEBUG"), texts(json.get("levels")));
+        assertEquals(0, json.get("truncated").size());
+    }
+
+    @Test
+    void truncationListsRowsAndKeepsSurrogatePairsWhole() throws Exception {
+        String emoji = "😀";
+        JsonNode json = serialize(List.of(
+            new LogEntry(1L, AT, "INFO", "abcd" + emoji + "xyz"),
+            new LogEntry(2L, AT, "INFO", "abcde"),
+            new LogEntry(3L, AT, "INFO", "abc" + emoji + "xyz"),
+            new LogEntry(4L, AT, "INFO", "abcdefgh")), List.of("message"), 5);
+
+        JsonNode messages = json.get("columns").get("message");
+        // Cutting at 5 would leave a lone high surrogate, so the pair is dropped
+        assertEquals("abcd", messages.get(0).asText());
+        // Exactly at the limit is not truncated
+        assertEquals("abcde", messages.get(1).asText());
+        // A pair that ends at the limit stays whole
+        assertEquals("abc" + emoji, messages.get(2).asText());
+        assertEquals("abcde", messages.get(3).asText());
+        assertEquals("[0,2,3]", json.get("truncated").toString());
+        assertEquals(5, json.get("maxMessageLength").asInt());
+    }
+
+    @Test
+    void rejectsNegativeMaxMessageLength() {
+        assertThrows(IllegalArgumentException.class, () -> new ColumnarLogs(List.of(), ALL_FIELDS, -1));
+    }
+}
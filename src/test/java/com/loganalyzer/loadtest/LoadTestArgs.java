@@ -0,0 +1,56 @@
+package com.loganalyzer.loadtest;
+
+import com.loganalyzer.util.SyntheticLogGenerator;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Minimal {@code --name=value} command line parsing for the load test tools.
+ */
+class LoadTestArgs {
+
+    private final Map<String, String> values = new HashMap<>();
+
+    LoadTestArgs(String[] args) {
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Expected --name=value but got '" + arg + "'");
+            }
+            int equals = arg.indexOf('=');
+            if (equals < 0) {
+                values.put(arg.substring(2), "true");
+            } else {
+                values.put(arg.substring(2, equals), arg.substring(equals + 1));
+            }
+        }
+    }
+
+    boolean has(String name) {
+        return values.containsKey(name);
+    }
+
+    String get(String name, String defaultValue) {
+        return values.getOrDefault(name, defaultValue);
+    }
+
+    long getLong(String name, long defaultValue) {
+        return values.containsKey(name) ? Long.parseLong(values.get(name)) : defaultValue;
+    }
+
+    double getDouble(String name, double defaultValue) {
+        return values.containsKey(name) ? Double.parseDouble(values.get(name)) : defaultValue;
+    }
+
+    /**
+     * Applies --flows, --error-rate, --burst-every-s, --burst-s and --burst-multiplier;
+     * the defaults match POST /api/admin/generate.
+     */
+    SyntheticLogGenerator tune(SyntheticLogGenerator generator) {
+        return generator
+            .withConcurrentFlows((int) getLong("flows", 64))
+            .withErrorRate(getDouble("error-rate", 0.02))
+            .withErrorBursts(getLong("burst-every-s", 6 * 3600), getLong("burst-s", 600),
+                getDouble("burst-multiplier", 15));
+    }
+}
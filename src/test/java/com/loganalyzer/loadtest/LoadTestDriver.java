@@ -0,0 +1,317 @@
+package com.loganalyzer.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.loganalyzer.model.LogEntry;
+import com.loganalyzer.model.LogPattern;
+import com.loganalyzer.util.SyntheticLogGenerator;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Open-loop load test against a running instance. Requests are issued on a fixed
+ * schedule at the target rate regardless of how fast earlier ones complete, and
+ * latency is measured from each request's scheduled time, so server stalls show up
+ * in the percentiles instead of silently lowering the offered load.
+ *
+ * <p>The mix covers ingest (POST /api/logs with synthetic entries), GET /api/logs,
+ * POST /api/query and GET /api/logs/search for identifiers seen in ingested entries.
+ * Query traffic needs the application pointed at the built-in stub LLM:
+ * {@code --log-analyzer.deepseek.api-url=http://127.0.0.1:9099/v1/chat/completions}
+ * and an API key. The driver leaves the instance's settings alone unless
+ * {@code --api-key=<key>} is given, which overwrites the stored key, so only pass it
+ * to a disposable instance. Ingested entries can be shaped with the generator options
+ * described in {@link LoadTestArgs#tune}.
+ *
+ * <p>The load test tools live in the test sources and run against the packaged jar:
+ * {@code mvn package && java -cp target/log-analyzer-1.0.0.jar -Dloader.path=target/test-classes
+ * -Dloader.main=com.loganalyzer.loadtest.LoadTestDriver org.springframework.boot.loader.launch.PropertiesLauncher
+ * --rps=200 --duration-s=60 --mix=ingest:70,list:2,query:3,search:25 --out=loadtest-report.txt}
+ */
+public class LoadTestDriver {
+
+    private static final Pattern UUID_PATTERN =
+        Pattern.compile("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
+    private static final int RECENT_IDS = 1024;
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient client;
+    private final String baseUrl;
+    private final Random random;
+    private final Map<String, ConcurrentLinkedQueue<long[]>> samples = new LinkedHashMap<>();
+    private final String[] recentIds = new String[RECENT_IDS];
+    private final AtomicLong recentCount = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private List<LogPattern> generatorPatterns = List.of();
+
+    LoadTestDriver(String baseUrl, long seed) {
+        this.baseUrl = baseUrl;
+        this.random = new Random(seed);
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newFixedThreadPool(16))
+            .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestArgs options = new LoadTestArgs(args);
+        String baseUrl = options.get("base-url", "http://localhost:8080");
+        double rps = options.getDouble("rps", 100);
+        long durationSeconds = options.getLong("duration-s", 60);
+        long timeoutSeconds = options.getLong("timeout-s", 30);
+        Map<String, Integer> mix = parseMix(options.get("mix", "ingest:70,list:2,query:3,search:25"));
+        Path out = Path.of(options.get("out", "loadtest-report.txt"));
+        int stubPort = (int) options.getLong("stub-port", 9099);
+        long seed = options.getLong("seed", 42);
+
+        StubLlmServer stub = null;
+        if (stubPort > 0) {
+            stub = new StubLlmServer(options.getLong("stub-latency-ms", 300));
+            stub.start(stubPort);
+        }
+
+        int totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        double ingestRate = rps * mix.getOrDefault("ingest", 0) / totalWeight;
+        LoadTestDriver driver = new LoadTestDriver(baseUrl, seed);
+        driver.prepare(options.get("api-key", null), mix.containsKey("query"));
+
+        long started = System.nanoTime();
+        driver.run(rps, ingestRate, durationSeconds, mix, timeoutSeconds, options);
+        double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+
+        String report = driver.report(rps, durationSeconds, mix, elapsedSeconds, stub);
+        Files.writeString(out, report);
+        System.out.print(report);
+        System.out.println("Report written to " + out.toAbsolutePath());
+        if (stub != null) {
+            stub.stop();
+        }
+        System.exit(0);
+    }
+
+    // Optional API key and the server's LogPattern templates, so generated entries match them
+    private void prepare(String apiKey, boolean queries) throws IOException, InterruptedException {
+        HttpRequest.Builder settings = HttpRequest.newBuilder(URI.create(baseUrl + "/api/settings/deepseek_api_key"))
+            .header("Content-Type", "application/json");
+        if (apiKey != null) {
+            send(settings.POST(HttpRequest.BodyPublishers.ofString(toJson(Map.of("apiKey", apiKey)))));
+            System.out.println("Stored the --api-key value as the instance's DeepSeek API key");
+        } else if (queries) {
+            HttpResponse<String> current = send(settings.GET());
+            if (current.statusCode() != 200 || current.body().contains("Not configured")) {
+                System.out.println("No API key is configured; query requests will fail unless --api-key is given");
+            }
+        }
+        HttpResponse<String> patterns = send(HttpRequest.newBuilder(URI.create(baseUrl + "/api/patterns")).GET());
+        List<LogPattern> configured = new ArrayList<>();
+        if (patterns.statusCode() == 200) {
+            for (JsonNode pattern : objectMapper.readTree(patterns.body())) {
+                configured.add(new LogPattern(pattern.path("id").asLong(), pattern.path("logLevel").asText(),
+                    pattern.path("logTemplate").asText()));
+            }
+        }
+        if (!configured.isEmpty()) {
+            System.out.println("Using " + configured.size() + " LogPattern templates from the server");
+        }
+        generatorPatterns = configured;
+    }
+
+    private void run(double rps, double ingestRate, long durationSeconds, Map<String, Integer> mix,
+                     long timeoutSeconds, LoadTestArgs options) {
+        // Simulated time advances at the ingest rate, so generated timestamps track the wall clock
+        SyntheticLogGenerator source = options.tune(new SyntheticLogGenerator(generatorPatterns, 0,
+            Math.max(ingestRate, 1), LocalDateTime.now(), random.nextLong())).unbounded();
+        String[] schedule = weightedSchedule(mix);
+        for (String operation : mix.keySet()) {
+            samples.put(operation, new ConcurrentLinkedQueue<>());
+        }
+
+        long intervalNanos = (long) (1_000_000_000L / rps);
+        long total = (long) (rps * durationSeconds);
+        long start = System.nanoTime();
+        List<CompletableFuture<?>> inFlight = new ArrayList<>();
+        for (long i = 0; i < total; i++) {
+            long scheduled = start + i * intervalNanos;
+            long wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            String operation = schedule[random.nextInt(schedule.length)];
+            HttpRequest request = buildRequest(operation, source, timeoutSeconds);
+            ConcurrentLinkedQueue<long[]> results = samples.get(operation);
+            inFlight.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                .handle((response, error) -> {
+                    long latency = System.nanoTime() - scheduled;
+                    int status = error != null ? 0 : response.statusCode();
+                    results.add(new long[] {latency, status});
+                    return null;
+                }));
+            if (inFlight.size() >= 4096) {
+                inFlight.removeIf(CompletableFuture::isDone);
+            }
+        }
+        try {
+            CompletableFuture.allOf(inFlight.toArray(new CompletableFuture<?>[0]))
+                .get(timeoutSeconds + 5, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            dropped.set(inFlight.stream().filter(future -> !future.isDone()).count());
+        }
+    }
+
+    private HttpRequest buildRequest(String operation, SyntheticLogGenerator source, long timeoutSeconds) {
+        HttpRequest.Builder builder;
+        switch (operation) {
+            case "ingest": {
+                LogEntry entry = source.next();
+                Matcher uuid = UUID_PATTERN.matcher(entry.getMessage());
+                if (uuid.find()) {
+                    recentIds[(int) (recentCount.getAndIncrement() % RECENT_IDS)] = uuid.group();
+                }
+                Map<String, String> body = Map.of(
+                    "timestamp", entry.getTimestamp().truncatedTo(ChronoUnit.MINUTES).toString(),
+                    "logLevel", entry.getLogLevel(),
+                    "message", entry.getMessage());
+                builder = HttpRequest.newBuilder(URI.create(baseUrl + "/api/logs"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(toJson(body)));
+                break;
+            }
+            case "list":
+                builder = HttpRequest.newBuilder(URI.create(baseUrl + "/api/logs")).GET();
+                break;
+            case "query":
+                builder = HttpRequest.newBuilder(URI.create(baseUrl + "/api/query"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                        toJson(Map.of("query", "Что происходило с traceId " + recentId() + "?"))));
+                break;
+            case "search":
+                builder = HttpRequest.newBuilder(URI.create(baseUrl + "/api/logs/search?q="
+                    + URLEncoder.encode(recentId(), StandardCharsets.UTF_8))).GET();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown operation '" + operation + "'");
+        }
+        return builder.timeout(Duration.ofSeconds(timeoutSeconds)).build();
+    }
+
+    private String recentId() {
+        long count = recentCount.get();
+        if (count == 0) {
+            return "healthcheck";
+        }
+        String id = recentIds[random.nextInt((int) Math.min(count, RECENT_IDS))];
+        return id != null ? id : "healthcheck";
+    }
+
+    private String report(double rps, long durationSeconds, Map<String, Integer> mix, double elapsedSeconds,
+                          StubLlmServer stub) {
+        StringWriter text = new StringWriter();
+        PrintWriter report = new PrintWriter(text);
+        report.printf("Load test against %s at %s%n", baseUrl, LocalDateTime.now().withNano(0));
+        report.printf("Target %.1f req/s for %d s, mix %s%n", rps, durationSeconds, mix);
+        report.printf("Elapsed %.1f s, unfinished requests %d%s%n%n", elapsedSeconds, dropped.get(),
+            stub != null ? ", stub LLM calls " + stub.getCalls() : "");
+        report.printf("%-8s %8s %8s %9s %9s %9s %9s %9s %9s%n",
+            "op", "count", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+
+        long allCount = 0;
+        for (Map.Entry<String, ConcurrentLinkedQueue<long[]>> operation : samples.entrySet()) {
+            List<long[]> results = new ArrayList<>(operation.getValue());
+            long[] latencies = new long[results.size()];
+            long errors = 0;
+            for (int i = 0; i < latencies.length; i++) {
+                latencies[i] = results.get(i)[0];
+                long status = results.get(i)[1];
+                if (status == 0 || status >= 400) {
+                    errors++;
+                }
+            }
+            Arrays.sort(latencies);
+            allCount += latencies.length;
+            report.printf("%-8s %8d %8d %9.1f", operation.getKey(), latencies.length, errors,
+                latencies.length / elapsedSeconds);
+            for (double percentile : PERCENTILES) {
+                report.printf(" %9.1f", percentileMillis(latencies, percentile));
+            }
+            report.printf(" %9.1f%n", latencies.length > 0 ? latencies[latencies.length - 1] / 1e6 : 0);
+        }
+        report.printf("%nAchieved %.1f req/s overall%n", allCount / elapsedSeconds);
+        report.flush();
+        return text.toString();
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+    }
+
+    private static Map<String, Integer> parseMix(String mix) {
+        Map<String, Integer> weights = new LinkedHashMap<>();
+        for (String part : mix.split(",")) {
+            String[] pair = part.trim().split(":");
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight > 0) {
+                weights.put(pair[0].trim(), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("The mix needs at least one operation with a positive weight");
+        }
+        return weights;
+    }
+
+    private static String[] weightedSchedule(Map<String, Integer> mix) {
+        List<String> schedule = new ArrayList<>();
+        for (Map.Entry<String, Integer> operation : mix.entrySet()) {
+            for (int i = 0; i < operation.getValue(); i++) {
+                schedule.add(operation.getKey());
+            }
+        }
+        return schedule.toArray(new String[0]);
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) throws IOException, InterruptedException {
+        return client.send(request.timeout(Duration.ofSeconds(10)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
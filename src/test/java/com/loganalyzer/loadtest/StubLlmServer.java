@@ -0,0 +1,163 @@
+package com.loganalyzer.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A local stand-in for the chat completions API so /api/query can be load tested
+ * without a real LLM. SQL prompts get a message ILIKE query for the identifier in
+ * the user's question (three candidates in speculative mode); analysis and
+ * summary prompts get a canned answer. Each reply waits a fixed latency plus a
+ * prefill cost proportional to the prompt size. Prompts containing the
+ * {@link #failPromptsContaining failure marker} get a 500 instead.
+ *
+ * <p>Start the application with
+ * {@code --log-analyzer.deepseek.api-url=http://127.0.0.1:<port>/v1/chat/completions}.
+ */
+public class StubLlmServer {
+
+    private static final Pattern UUID_PATTERN =
+        Pattern.compile("[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+    private static final Pattern WORD_PATTERN = Pattern.compile("[\\p{L}\\p{N}_-]{3,}");
+
+    // Simulated prefill speed, characters per millisecond (about 5000 tokens/s)
+    private static final int PREFILL_CHARS_PER_MS = 15;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final long latencyMs;
+    private final AtomicLong calls = new AtomicLong();
+    private volatile String failureMarker;
+    private volatile String lastPrompt;
+    private HttpServer server;
+
+    public StubLlmServer(long latencyMs) {
+        this.latencyMs = latencyMs;
+    }
+
+    public void start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 256);
+        server.createContext("/", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public long getCalls() {
+        return calls.get();
+    }
+
+    public String getLastPrompt() {
+        return lastPrompt;
+    }
+
+    // null stops failing
+    public void failPromptsContaining(String marker) {
+        failureMarker = marker;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            calls.incrementAndGet();
+            JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+            String prompt = request.path("messages").path(0).path("content").asText("");
+            lastPrompt = prompt;
+            String marker = failureMarker;
+            if (marker != null && prompt.contains(marker)) {
+                exchange.sendResponseHeaders(500, -1);
+                return;
+            }
+            String content = reply(prompt);
+
+            Thread.sleep(latencyMs + prompt.length() / PREFILL_CHARS_PER_MS);
+
+            byte[] body = objectMapper.writeValueAsBytes(Map.of(
+                "choices", List.of(Map.of("message", Map.of("role", "assistant", "content", content)))));
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private String reply(String prompt) throws IOException {
+        if (prompt.startsWith("[РОЛЬ]")) {
+            String identifier = identifier(userQuery(prompt)).replace("'", "''");
+            String sql = "SELECT id, timestamp, log_level, message FROM log_entries WHERE message ILIKE '%"
+                + identifier + "%' ORDER BY timestamp DESC LIMIT 500";
+            if (prompt.contains("\"candidates\"")) {
+                return objectMapper.writeValueAsString(Map.of("candidates", List.of(
+                    Map.of("kind", "strict", "sql", sql),
+                    Map.of("kind", "fallback", "sql",
+                        "SELECT id, timestamp, log_level, message FROM log_entries ORDER BY timestamp DESC LIMIT 50"))));
+            }
+            return sql;
+        }
+        if (prompt.contains("Верни JSON")) {
+            return objectMapper.writeValueAsString(Map.of("analysis", "Stub analysis of a " + prompt.length() + " character prompt"));
+        }
+        return "Stub summary of a " + prompt.length() + " character chunk";
+    }
+
+    private static String userQuery(String prompt) {
+        String marker = "Запрос пользователя:\n";
+        int start = prompt.indexOf(marker);
+        if (start < 0) {
+            return "";
+        }
+        start += marker.length();
+        int end = prompt.indexOf("\n\n", start);
+        return end > start ? prompt.substring(start, end) : prompt.substring(start);
+    }
+
+    // A UUID when the question has one, otherwise its longest word
+    private static String identifier(String query) {
+        Matcher uuid = UUID_PATTERN.matcher(query);
+        if (uuid.find()) {
+            return uuid.group();
+        }
+        String longest = "error";
+        Matcher word = WORD_PATTERN.matcher(query);
+        while (word.find()) {
+            if (word.group().length() > longest.length()) {
+                longest = word.group();
+            }
+        }
+        return longest;
+    }
+
+    /**
+     * Runs the stub on its own: --port (default 9099), --latency-ms (default 300).
+     */
+    public static void main(String[] args) throws IOException {
+        LoadTestArgs options = new LoadTestArgs(args);
+        int port = (int) options.getLong("port", 9099);
+        StubLlmServer stub = new StubLlmServer(options.getLong("latency-ms", 300));
+        stub.start(port);
+        System.out.println("Stub LLM listening on http://127.0.0.1:" + port + "/v1/chat/completions");
+    }
+}
@@ -0,0 +1,57 @@
+package com.loganalyzer.loadtest;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.loganalyzer.model.LogEntry;
+import com.loganalyzer.util.SyntheticLogGenerator;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Writes {@link SyntheticLogGenerator} output as NDJSON: --rows, --rate (entries per
+ * simulated second), --seed, --start (ISO date-time, default: rows/rate seconds before
+ * now), --out, plus the generator options described in {@link LoadTestArgs#tune}.
+ *
+ * <p>{@code mvn test-compile && java -cp target/log-analyzer-1.0.0.jar -Dloader.path=target/test-classes
+ * -Dloader.main=com.loganalyzer.loadtest.SyntheticLogWriter org.springframework.boot.loader.launch.PropertiesLauncher
+ * --rows=1000000 --out=logs.ndjson}
+ */
+public class SyntheticLogWriter {
+
+    public static void main(String[] args) throws IOException {
+        LoadTestArgs options = new LoadTestArgs(args);
+        long rows = options.getLong("rows", 1_000_000);
+        double rate = options.getDouble("rate", 200);
+        long seed = options.getLong("seed", 42);
+        LocalDateTime start = options.has("start")
+            ? LocalDateTime.parse(options.get("start", null))
+            : LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).minusSeconds((long) (rows / rate));
+        Path out = Path.of(options.get("out", "synthetic-logs.ndjson"));
+
+        SyntheticLogGenerator generator = options.tune(new SyntheticLogGenerator(
+            SyntheticLogGenerator.defaultPatterns(), rows, rate, start, seed));
+        ObjectMapper mapper = new ObjectMapper();
+        long started = System.currentTimeMillis();
+        try (OutputStream stream = new BufferedOutputStream(Files.newOutputStream(out), 1 << 16);
+             JsonGenerator json = mapper.getFactory().createGenerator(stream)) {
+            json.setRootValueSeparator(null);
+            while (generator.hasNext()) {
+                LogEntry entry = generator.next();
+                json.writeStartObject();
+                json.writeStringField("timestamp", entry.getTimestamp().toString());
+                json.writeStringField("logLevel", entry.getLogLevel());
+                json.writeStringField("message", entry.getMessage());
+                json.writeEndObject();
+                json.writeRaw('\n');
+            }
+        }
+        System.out.printf("Wrote %d entries to %s in %d ms%n", generator.getEmitted(), out,
+            System.currentTimeMillis() - started);
+    }
+}
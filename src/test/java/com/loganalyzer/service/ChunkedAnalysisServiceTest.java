@@ -0,0 +1,164 @@
+package com.loganalyzer.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.loganalyzer.loadtest.StubLlmServer;
+import com.loganalyzer.model.LogEntry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChunkedAnalysisServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private StubLlmServer stub;
+    private ChunkedAnalysisService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        stub = new StubLlmServer(0);
+        stub.start(0);
+
+        DeepSeekService deepSeek = new DeepSeekService();
+        ReflectionTestUtils.setField(deepSeek, "webClientBuilder", WebClient.builder());
+        ReflectionTestUtils.setField(deepSeek, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(deepSeek, "apiUrl", "http://127.0.0.1:" + stub.getPort() + "/v1/chat/completions");
+
+        service = new ChunkedAnalysisService();
+        ReflectionTestUtils.setField(service, "deepSeekService", deepSeek);
+        ReflectionTestUtils.setField(service, "mode", "auto");
+        ReflectionTestUtils.setField(service, "chunkedThresholdTokens", 2000);
+        ReflectionTestUtils.setField(service, "chunkTokens", 600);
+        ReflectionTestUtils.setField(service, "parallelism", 4);
+        ReflectionTestUtils.setField(service, "chunkTimeoutMs", 10_000L);
+        ReflectionTestUtils.setField(service, "cacheSize", 1024);
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.stop();
+    }
+
+    private static LogEntry log(int i, String message) {
+        return new LogEntry((long) i, START.plusSeconds(i), i % 50 == 0 ? "ERROR" : "INFO", message);
+    }
+
+    private static List<LogEntry> logs(int count) {
+        List<LogEntry> logs = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            logs.add(log(i, "request " + i + " served in " + (i * 37 % 400) + " ms by worker-" + (i % 7)));
+        }
+        return logs;
+    }
+
+    private static Map<String, Long> chunkKeys(List<List<LogEntry>> chunks) {
+        return chunks.stream().collect(Collectors.groupingBy(
+            chunk -> chunk.stream().map(LogEntry::getMessage).collect(Collectors.joining("\n")), Collectors.counting()));
+    }
+
+    @Test
+    void smallResultUsesTheSinglePrompt() {
+        String analysis = service.analyzeLogs("what failed?", logs(20), null, "key");
+
+        assertTrue(analysis.startsWith("Stub analysis"), analysis);
+        assertEquals(1, stub.getCalls());
+        assertEquals(1L, service.getStats().get("singleRuns"));
+        assertEquals(0L, service.getStats().get("chunkedRuns"));
+    }
+
+    @Test
+    void chunkBoundariesSurviveAnInsertedLine() {
+        List<LogEntry> original = logs(2000);
+        List<LogEntry> edited = new ArrayList<>(original);
+        edited.add(1000, log(1000, "inserted line that shifts every later position"));
+
+        Map<String, Long> before = chunkKeys(service.chunk(original));
+        Map<String, Long> after = chunkKeys(service.chunk(edited));
+        long unchanged = before.keySet().stream().filter(after::containsKey).count();
+        // Only the chunks around the insertion differ; later boundaries resynchronize on content
+        assertTrue(before.size() > 10, "expected many chunks, got " + before.size());
+        assertTrue(unchanged >= before.size() - 2, unchanged + " of " + before.size() + " chunks unchanged");
+    }
+
+    @Test
+    void repeatedChunksAreServedFromTheCache() {
+        ReflectionTestUtils.setField(service, "chunkedThresholdTokens", 20_000);
+        List<LogEntry> logs = logs(2000);
+        service.analyzeLogs("what failed?", logs, null, "key");
+        long chunks = (Long) service.getStats().get("chunksSummarized");
+        assertTrue(chunks > 10);
+        assertEquals(chunks + 1, stub.getCalls());
+
+        // Same logs again: only the final analysis call reaches the LLM
+        service.analyzeLogs("anything slow?", logs, null, "key");
+        assertEquals(chunks + 2, stub.getCalls());
+        assertEquals(chunks, service.getStats().get("cacheHits"));
+
+        // One line inserted: only the chunks around it are summarized again
+        List<LogEntry> edited = new ArrayList<>(logs);
+        edited.add(1000, log(1000, "inserted line that shifts every later position"));
+        service.analyzeLogs("what failed?", edited, null, "key");
+        long resummarized = (Long) service.getStats().get("chunksSummarized") - chunks;
+        assertTrue(resummarized >= 1 && resummarized <= 3, resummarized + " chunks summarized again");
+    }
+
+    @Test
+    void mergeRoundsShrinkSummariesUntilTheyFit() {
+        ReflectionTestUtils.setField(service, "mode", "chunked");
+        ReflectionTestUtils.setField(service, "chunkedThresholdTokens", 60);
+        ReflectionTestUtils.setField(service, "chunkTokens", 300);
+        List<LogEntry> logs = logs(2000);
+        int chunks = service.chunk(logs).size();
+
+        String analysis = service.analyzeLogs("what failed?", logs, null, "key");
+
+        assertTrue(analysis.startsWith("Stub analysis"), analysis);
+        assertTrue((Long) service.getStats().get("mergeRounds") >= 2);
+        // The final prompt only carries the summaries left after merging, which fit the threshold
+        List<String> lines = stub.getLastPrompt().lines().toList();
+        List<String> summaries = new ArrayList<>();
+        for (int i = 0; i + 1 < lines.size(); i++) {
+            if (lines.get(i).matches("Фрагмент \\d+:")) {
+                summaries.add(lines.get(i + 1));
+            }
+        }
+        assertTrue(!summaries.isEmpty() && summaries.size() < chunks, summaries.size() + " summaries left of " + chunks);
+        assertTrue(summaries.size() == 1 || String.join("\n", summaries).length() / 3 + 1 <= 60);
+    }
+
+    @Test
+    void failedChunkFailsTheAnalysisWithItsPosition() {
+        List<LogEntry> logs = logs(2000);
+        logs.set(1500, log(1500, "poison line"));
+        stub.failPromptsContaining("poison line");
+
+        RuntimeException error = assertThrows(RuntimeException.class,
+            () -> service.analyzeLogs("what failed?", logs, null, "key"));
+
+        Matcher message = Pattern.compile("Failed to summarize chunk \\d+ of \\d+ \\((\\S+) to (\\S+)\\): .*500.*")
+            .matcher(error.getMessage());
+        assertTrue(message.matches(), error.getMessage());
+        // The range names the chunk holding the failing line
+        LocalDateTime poisoned = START.plusSeconds(1500);
+        assertFalse(LocalDateTime.parse(message.group(1)).isAfter(poisoned), error.getMessage());
+        assertFalse(LocalDateTime.parse(message.group(2)).isBefore(poisoned), error.getMessage());
+
+        // The chunks that did complete are reused once the LLM recovers
+        stub.failPromptsContaining(null);
+        long summarized = (Long) service.getStats().get("chunksSummarized");
+        service.analyzeLogs("what failed?", logs, null, "key");
+        assertTrue((Long) service.getStats().get("cacheHits") >= summarized);
+    }
+}
@@ -0,0 +1,204 @@
+package com.loganalyzer.service;
+
+import com.loganalyzer.model.LogEntry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class IngestBufferServiceTest {
+
+    private final AtomicInteger written = new AtomicInteger();
+
+    private IngestBufferService newService(boolean writeBehind, int capacity) {
+        LogBatchWriter writer = mock(LogBatchWriter.class);
+        when(writer.writeBatch(anyList())).thenAnswer(invocation -> {
+            List<LogEntry> entries = invocation.getArgument(0);
+            written.addAndGet(entries.size());
+            return entries;
+        });
+        IngestBufferService service = new IngestBufferService();
+        ReflectionTestUtils.setField(service, "logBatchWriter", writer);
+        ReflectionTestUtils.setField(service, "writeBehind", writeBehind);
+        ReflectionTestUtils.setField(service, "bufferCapacity", capacity);
+        ReflectionTestUtils.setField(service, "batchSize", 100);
+        ReflectionTestUtils.setField(service, "flushIntervalMs", 20L);
+        return service;
+    }
+
+    private static LogEntry entry(int i) {
+        return new LogEntry(null, LocalDateTime.of(2024, 1, 1, 0, 0), "INFO", "message " + i);
+    }
+
+    private static LogBatchWriter h2Writer(JdbcTemplate jdbcTemplate) {
+        @SuppressWarnings("unchecked")
+        ObjectProvider<LogEntryListener> listeners = mock(ObjectProvider.class);
+        when(listeners.orderedStream()).thenAnswer(invocation -> Stream.empty());
+        LogEntryEventPublisher publisher = new LogEntryEventPublisher();
+        ReflectionTestUtils.setField(publisher, "listeners", listeners);
+
+        LogBatchWriter writer = new LogBatchWriter();
+        ReflectionTestUtils.setField(writer, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(writer, "transactionTemplate",
+            new TransactionTemplate(new DataSourceTransactionManager(jdbcTemplate.getDataSource())));
+        ReflectionTestUtils.setField(writer, "eventPublisher", publisher);
+        return writer;
+    }
+
+    @Test
+    void noWriterThreadWithoutWriteBehind() {
+        IngestBufferService service = newService(false, 64);
+        service.start();
+        assertNull(ReflectionTestUtils.getField(service, "writerThread"));
+        assertFalse(service.isAccepting());
+        assertNull(service.submit(entry(1)));
+        service.stop();
+    }
+
+    @Test
+    void flushesPartialBatchAfterInterval() throws Exception {
+        IngestBufferService service = newService(true, 64);
+        service.start();
+        try {
+            CompletableFuture<LogEntry> ack = service.submit(entry(1));
+            assertNotNull(ack);
+            assertEquals("message 1", ack.get(5, TimeUnit.SECONDS).getMessage());
+        } finally {
+            service.stop();
+        }
+    }
+
+    @Test
+    void spaceListenerRunsOnceAfterWriterDrainsFullRing() throws Exception {
+        IngestBufferService service = newService(true, 4);
+        ReflectionTestUtils.setField(service, "batchSize", 2);
+        service.start();
+        try {
+            // Fill the ring faster than the writer drains it
+            List<CompletableFuture<LogEntry>> acks = new ArrayList<>();
+            int i = 0;
+            CompletableFuture<LogEntry> ack;
+            while ((ack = service.submit(entry(i++))) != null) {
+                acks.add(ack);
+            }
+            AtomicInteger notified = new AtomicInteger();
+            CountDownLatch resumed = new CountDownLatch(1);
+            service.onSpaceAvailable(() -> {
+                notified.incrementAndGet();
+                resumed.countDown();
+            });
+            assertTrue(resumed.await(5, TimeUnit.SECONDS));
+            assertNotNull(service.submit(entry(i)));
+            CompletableFuture.allOf(acks.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.SECONDS);
+            assertEquals(1, notified.get());
+        } finally {
+            service.stop();
+        }
+    }
+
+    @Test
+    void spaceListenerRunsImmediatelyWhenRingHasSpace() {
+        IngestBufferService service = newService(true, 4);
+        service.start();
+        try {
+            AtomicInteger notified = new AtomicInteger();
+            service.onSpaceAvailable(notified::incrementAndGet);
+            assertEquals(1, notified.get());
+        } finally {
+            service.stop();
+        }
+    }
+
+    @Test
+    void everyAcceptedEntryIsCommittedWhenStoppedUnderLoad() throws Exception {
+        IngestBufferService service = newService(true, 1024);
+        service.start();
+        ConcurrentLinkedQueue<CompletableFuture<LogEntry>> acks = new ConcurrentLinkedQueue<>();
+        List<Thread> producers = new ArrayList<>();
+        for (int p = 0; p < 4; p++) {
+            Thread producer = new Thread(() -> {
+                for (int i = 0; ; i++) {
+                    CompletableFuture<LogEntry> ack = service.submit(entry(i));
+                    if (ack == null) {
+                        if (!service.isRunning()) {
+                            return;
+                        }
+                        Thread.yield();
+                        continue;
+                    }
+                    acks.add(ack);
+                }
+            });
+            producer.start();
+            producers.add(producer);
+        }
+        Thread.sleep(200);
+        service.stop();
+        for (Thread producer : producers) {
+            producer.join(10_000);
+        }
+
+        assertFalse(acks.isEmpty());
+        for (CompletableFuture<LogEntry> ack : acks) {
+            assertTrue(ack.isDone(), "accepted entry was never committed");
+        }
+        assertEquals(acks.size(), written.get());
+        assertNull(service.submit(entry(0)));
+    }
+
+    @Test
+    void badEntryInABatchOnlyFailsItself() throws Exception {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:ingest;MODE=PostgreSQL;DATABASE_TO_UPPER=false;DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS log_entries");
+        jdbcTemplate.execute("CREATE TABLE log_entries (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, timestamp TIMESTAMP NOT NULL, "
+            + "log_level VARCHAR(255) NOT NULL, message VARCHAR(2000) NOT NULL)");
+
+        IngestBufferService service = newService(true, 64);
+        ReflectionTestUtils.setField(service, "logBatchWriter", h2Writer(jdbcTemplate));
+        // Long enough that all entries land in one group commit
+        ReflectionTestUtils.setField(service, "flushIntervalMs", 500L);
+        LogEntry bad = new LogEntry(null, LocalDateTime.of(2024, 1, 1, 0, 0), "INFO", "x".repeat(LogBatchWriter.MAX_MESSAGE_LENGTH + 1));
+        assertNotNull(LogBatchWriter.validationError(bad));
+
+        service.start();
+        try {
+            List<CompletableFuture<LogEntry>> acks = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                acks.add(service.submit(i == 4 ? bad : entry(i)));
+            }
+            for (int i = 0; i < acks.size(); i++) {
+                CompletableFuture<LogEntry> ack = acks.get(i);
+                if (i == 4) {
+                    assertThrows(Exception.class, () -> ack.get(5, TimeUnit.SECONDS));
+                } else {
+                    assertNotNull(ack.get(5, TimeUnit.SECONDS).getId());
+                }
+            }
+        } finally {
+            service.stop();
+        }
+        assertEquals(9, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM log_entries", Integer.class));
+        assertEquals(9L, service.getStats().get("committed"));
+        assertEquals(1L, service.getStats().get("failed"));
+    }
+}
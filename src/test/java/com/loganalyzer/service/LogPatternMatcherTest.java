@@ -0,0 +1,64 @@
+package com.loganalyzer.service;
+
+import com.loganalyzer.model.LogPattern;
+import com.loganalyzer.repository.LogPatternRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LogPatternMatcherTest {
+
+    private static final LogPattern SEND_FAILED = new LogPattern(1L, "ERROR", "logger.error(\"send failed for id={}\", id);");
+    private static final LogPattern DISK_FULL = new LogPattern(2L, "WARN", "logger.warn(\"disk {} is full\", disk);");
+
+    @Test
+    void invalidationDuringALoadIsNotLost() throws Exception {
+        LogPatternRepository repository = mock(LogPatternRepository.class);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch changed = new CountDownLatch(1);
+        AtomicReference<List<LogPattern>> table = new AtomicReference<>(List.of(SEND_FAILED));
+        when(repository.findAll()).thenAnswer(invocation -> {
+            List<LogPattern> snapshot = table.get();
+            if (loading.getCount() > 0) {
+                // The first load read the table, then stalls while a pattern is added and invalidated
+                loading.countDown();
+                assertTrue(changed.await(5, TimeUnit.SECONDS));
+            }
+            return snapshot;
+        });
+        LogPatternMatcher matcher = new LogPatternMatcher();
+        ReflectionTestUtils.setField(matcher, "logPatternRepository", repository);
+
+        Thread reader = new Thread(() -> matcher.match("send failed for id=7"));
+        reader.start();
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        table.set(List.of(SEND_FAILED, DISK_FULL));
+        matcher.invalidate();
+        changed.countDown();
+        reader.join(5000);
+
+        assertEquals(2L, matcher.match("disk /var is full"));
+        assertEquals(1L, matcher.match("send failed for id=7"));
+    }
+
+    @Test
+    void compiledPatternsAreReusedUntilInvalidated() {
+        LogPatternRepository repository = mock(LogPatternRepository.class);
+        when(repository.findAll()).thenReturn(List.of(SEND_FAILED)).thenReturn(List.of(SEND_FAILED, DISK_FULL));
+        LogPatternMatcher matcher = new LogPatternMatcher();
+        ReflectionTestUtils.setField(matcher, "logPatternRepository", repository);
+
+        assertNull(matcher.match("disk /var is full"));
+        assertNull(matcher.match("disk /var is full"));
+        matcher.invalidate();
+        assertEquals(2L, matcher.match("disk /var is full"));
+    }
+}
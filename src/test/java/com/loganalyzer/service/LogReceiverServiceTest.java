@@ -0,0 +1,76 @@
+package com.loganalyzer.service;
+
+import com.loganalyzer.model.LogEntry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LogReceiverServiceTest {
+
+    @Test
+    void receiverIngestsWithoutWriteBehind() throws Exception {
+        List<LogEntry> written = new CopyOnWriteArrayList<>();
+        LogBatchWriter writer = mock(LogBatchWriter.class);
+        when(writer.writeBatch(anyList())).thenAnswer(invocation -> {
+            List<LogEntry> entries = invocation.getArgument(0);
+            written.addAll(entries);
+            return entries;
+        });
+        IngestBufferService buffer = new IngestBufferService();
+        ReflectionTestUtils.setField(buffer, "logBatchWriter", writer);
+        ReflectionTestUtils.setField(buffer, "writeBehind", false);
+        ReflectionTestUtils.setField(buffer, "receiverEnabled", true);
+        ReflectionTestUtils.setField(buffer, "bufferCapacity", 64);
+        ReflectionTestUtils.setField(buffer, "batchSize", 100);
+        ReflectionTestUtils.setField(buffer, "flushIntervalMs", 20L);
+
+        int port;
+        try (DatagramSocket probe = new DatagramSocket(0)) {
+            port = probe.getLocalPort();
+        }
+        LogReceiverService receiver = new LogReceiverService();
+        ReflectionTestUtils.setField(receiver, "ingestBuffer", buffer);
+        ReflectionTestUtils.setField(receiver, "enabled", true);
+        ReflectionTestUtils.setField(receiver, "host", "127.0.0.1");
+        ReflectionTestUtils.setField(receiver, "syslogUdpPort", port);
+        ReflectionTestUtils.setField(receiver, "syslogTcpPort", 0);
+        ReflectionTestUtils.setField(receiver, "rawTcpPort", 0);
+        ReflectionTestUtils.setField(receiver, "maxLineLength", 8192);
+
+        // Same order as the lifecycle phases: buffer first, receiver after
+        buffer.start();
+        receiver.start();
+        try {
+            assertFalse(buffer.isWriteBehindEnabled());
+            assertTrue(buffer.isAccepting());
+
+            byte[] datagram = "<11>1 2024-01-01T00:00:00Z host app - - - disk full".getBytes(StandardCharsets.UTF_8);
+            try (DatagramSocket socket = new DatagramSocket()) {
+                socket.send(new DatagramPacket(datagram, datagram.length, InetAddress.getLoopbackAddress(), port));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (written.isEmpty() && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+        } finally {
+            receiver.stop();
+            buffer.stop();
+        }
+
+        assertEquals(1, written.size());
+        assertEquals("disk full", written.get(0).getMessage());
+        assertEquals(0L, receiver.getStats().get("dropped"));
+    }
+}
@@ -0,0 +1,115 @@
+package com.loganalyzer.service;
+
+import com.loganalyzer.model.LogEntry;
+import com.loganalyzer.repository.LogEntryRowMapper;
+import com.loganalyzer.repository.LogPatternRepository;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LogSnapshotServiceTest {
+
+    @TempDir
+    Path dir;
+
+    private JdbcTemplate jdbcTemplate;
+    private LogEntryListener listener;
+    private LogSnapshotService snapshots;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:snapshots;MODE=PostgreSQL;DATABASE_TO_UPPER=false;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS log_entries");
+        jdbcTemplate.execute("DROP TABLE IF EXISTS log_patterns");
+        jdbcTemplate.execute("CREATE TABLE log_entries (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+            + "timestamp TIMESTAMP NOT NULL, log_level VARCHAR(255) NOT NULL, message VARCHAR(2000) NOT NULL)");
+        jdbcTemplate.execute("CREATE TABLE log_patterns (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+            + "log_level VARCHAR(255), log_template VARCHAR(2000))");
+
+        listener = mock(LogEntryListener.class);
+        @SuppressWarnings("unchecked")
+        ObjectProvider<LogEntryListener> listeners = mock(ObjectProvider.class);
+        when(listeners.orderedStream()).thenAnswer(invocation -> Stream.of(listener));
+        LogEntryEventPublisher publisher = new LogEntryEventPublisher();
+        ReflectionTestUtils.setField(publisher, "listeners", listeners);
+
+        LogPatternRepository patterns = mock(LogPatternRepository.class);
+        when(patterns.findAll()).thenReturn(List.of());
+
+        snapshots = new LogSnapshotService();
+        ReflectionTestUtils.setField(snapshots, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(snapshots, "transactionTemplate",
+            new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+        ReflectionTestUtils.setField(snapshots, "logPatternRepository", patterns);
+        ReflectionTestUtils.setField(snapshots, "logPatternMatcher", mock(LogPatternMatcher.class));
+        ReflectionTestUtils.setField(snapshots, "eventPublisher", publisher);
+        ReflectionTestUtils.setField(snapshots, "enabled", true);
+        ReflectionTestUtils.setField(snapshots, "snapshotPath", dir.resolve("logs.snapshot").toString());
+    }
+
+    private List<LogEntry> rows() {
+        return jdbcTemplate.query("SELECT * FROM log_entries ORDER BY id", LogEntryRowMapper.INSTANCE);
+    }
+
+    @Test
+    void roundTripKeepsSubMillisecondTimestamps() throws Exception {
+        jdbcTemplate.update("INSERT INTO log_entries (id, timestamp, log_level, message) VALUES (?, ?, ?, ?)",
+            3L, LocalDateTime.of(2024, 1, 1, 12, 0, 0, 123_456_000), "INFO", "first");
+        jdbcTemplate.update("INSERT INTO log_entries (id, timestamp, log_level, message) VALUES (?, ?, ?, ?)",
+            7L, LocalDateTime.of(2024, 1, 1, 12, 0, 0, 123_457_000), "ERROR", "same millisecond, \"quoted\"");
+        jdbcTemplate.update("INSERT INTO log_entries (id, timestamp, log_level, message) VALUES (?, ?, ?, ?)",
+            8L, LocalDateTime.of(1969, 12, 31, 23, 59, 59, 999_999_000), "INFO", "");
+        List<LogEntry> before = rows();
+        snapshots.createSnapshot();
+        jdbcTemplate.execute("TRUNCATE TABLE log_entries RESTART IDENTITY");
+
+        assertEquals(3L, snapshots.restoreSnapshot().get("rows"));
+        List<LogEntry> after = rows();
+        assertEquals(before.size(), after.size());
+        for (int i = 0; i < before.size(); i++) {
+            assertEquals(before.get(i).getId(), after.get(i).getId());
+            assertEquals(before.get(i).getTimestamp(), after.get(i).getTimestamp());
+            assertEquals(before.get(i).getLogLevel(), after.get(i).getLogLevel());
+            assertEquals(before.get(i).getMessage(), after.get(i).getMessage());
+        }
+        assertEquals(123_456_000, after.get(0).getTimestamp().getNano());
+    }
+
+    @Test
+    void failedRestoreClearsAnnouncedRows() throws Exception {
+        // More rows than one bulk-load chunk, with the row that breaks the restore in the last chunk
+        jdbcTemplate.execute("INSERT INTO log_entries SELECT \"X\", TIMESTAMP '2024-01-01 00:00:00' + \"X\" * INTERVAL '1' SECOND, "
+            + "'INFO', CASE WHEN \"X\" = 100001 THEN 'poison' ELSE 'row ' || \"X\" END FROM SYSTEM_RANGE(1, 100001)");
+        snapshots.createSnapshot();
+        jdbcTemplate.execute("TRUNCATE TABLE log_entries RESTART IDENTITY");
+        jdbcTemplate.execute("ALTER TABLE log_entries ADD CONSTRAINT no_poison CHECK (message <> 'poison')");
+
+        snapshots.start();
+
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM log_entries", Integer.class));
+        InOrder order = inOrder(listener);
+        order.verify(listener, atLeastOnce()).onInserted(anyList());
+        order.verify(listener).onCleared();
+    }
+}
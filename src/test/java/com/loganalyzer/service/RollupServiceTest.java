@@ -0,0 +1,125 @@
+package com.loganalyzer.service;
+
+import com.loganalyzer.model.LogEntry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RollupServiceTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private JdbcTemplate jdbcTemplate;
+    private LogEntryEventPublisher eventPublisher;
+    private LogPatternMatcher matcher;
+    private RollupService rollups;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:rollups;MODE=PostgreSQL;DATABASE_TO_UPPER=false;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS log_entries");
+        jdbcTemplate.execute("CREATE TABLE log_entries (id BIGINT PRIMARY KEY, timestamp TIMESTAMP NOT NULL, log_level VARCHAR(16), message VARCHAR(2000))");
+        jdbcTemplate.execute("INSERT INTO log_entries SELECT \"X\", TIMESTAMP '2024-01-01 00:00:00' + \"X\" * INTERVAL '1' MINUTE, "
+            + "CASE WHEN MOD(\"X\", 4) = 0 THEN 'ERROR' ELSE 'INFO' END, 'message ' || \"X\" FROM SYSTEM_RANGE(1, 100)");
+
+        eventPublisher = new LogEntryEventPublisher();
+        matcher = mock(LogPatternMatcher.class);
+        rollups = new RollupService();
+        ReflectionTestUtils.setField(rollups, "logPatternMatcher", matcher);
+        ReflectionTestUtils.setField(rollups, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(rollups, "eventPublisher", eventPublisher);
+        ReflectionTestUtils.setField(rollups, "transactionTemplate", new TransactionTemplate(new DataSourceTransactionManager(dataSource)));
+    }
+
+    private long total(String level) {
+        return rollups.histogram(RollupService.Granularity.DAY, DAY, DAY, level, null, "none").stream()
+            .mapToLong(point -> (Long) point.get("count"))
+            .sum();
+    }
+
+    private LogEntry row(long id) {
+        return jdbcTemplate.queryForObject("SELECT id, timestamp, log_level, message FROM log_entries WHERE id = ?",
+            (rs, rowNum) -> new LogEntry(rs.getLong(1), rs.getObject(2, LocalDateTime.class), rs.getString(3), rs.getString(4)), id);
+    }
+
+    @Test
+    void rebuildCountsTheTable() {
+        rollups.rebuild();
+        assertEquals(100, total(null));
+        assertEquals(25, total("ERROR"));
+    }
+
+    @Test
+    void incrementalUpdatesAdjustBuckets() {
+        rollups.rebuild();
+        rollups.onInserted(List.of(new LogEntry(500L, DAY.plusHours(3), "ERROR", "late")));
+        rollups.onDeleted(new LogEntry(4L, DAY.plusMinutes(4), "ERROR", "message 4"));
+        assertEquals(100, total(null));
+        assertEquals(25, total("ERROR"));
+        List<Map<String, Object>> hours = rollups.histogram(RollupService.Granularity.HOUR, DAY, DAY.plusHours(3), "ERROR", null, "level");
+        // 00:04..00:56 minus the deleted 00:04, 01:00..01:40, then the late entry at 03:00
+        assertEquals(List.of(13L, 11L, 1L), hours.stream().map(point -> point.get("count")).toList());
+    }
+
+    @Test
+    void changesDuringTheScanAreReplayedWithoutBlockingWriters() throws Exception {
+        AtomicBoolean rebuilding = new AtomicBoolean();
+        AtomicBoolean writerRan = new AtomicBoolean();
+        when(matcher.match(any())).thenAnswer(invocation -> {
+            if (rebuilding.get() && writerRan.compareAndSet(false, true)) {
+                // A writer commits an insert and a delete while the rebuild is part-way through its scan
+                Thread writer = new Thread(() -> eventPublisher.withChangeLock(() -> {
+                    LogEntry deleted = row(8);
+                    jdbcTemplate.update("DELETE FROM log_entries WHERE id = 8");
+                    jdbcTemplate.update("INSERT INTO log_entries VALUES (101, TIMESTAMP '2024-01-01 12:00:00', 'ERROR', 'new')");
+                    rollups.onDeleted(deleted);
+                    rollups.onInserted(List.of(row(101)));
+                    return null;
+                }));
+                writer.start();
+                writer.join(5000);
+                assertFalse(writer.isAlive(), "writer blocked by the rebuild");
+            }
+            return null;
+        });
+
+        rebuilding.set(true);
+        rollups.rebuild();
+        rebuilding.set(false);
+
+        assertTrue(writerRan.get());
+        assertEquals(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM log_entries", Long.class), total(null));
+        assertEquals(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM log_entries WHERE log_level = 'ERROR'", Long.class), total("ERROR"));
+    }
+
+    @Test
+    void futureTimestampDoesNotEvictCurrentBuckets() {
+        ReflectionTestUtils.setField(rollups, "minuteRetentionHours", 168L);
+        ReflectionTestUtils.setField(rollups, "hourRetentionHours", 2160L);
+        LocalDateTime recent = LocalDateTime.now().minusHours(1).withSecond(0).withNano(0);
+        rollups.onInserted(List.of(
+            new LogEntry(1L, recent, "INFO", "recent"),
+            new LogEntry(2L, recent.plusYears(5), "INFO", "clock skew")));
+
+        rollups.evictExpiredBuckets();
+
+        assertEquals(1, rollups.histogram(RollupService.Granularity.MINUTE, recent, recent, null, null, "none").size());
+        assertEquals(1, rollups.histogram(RollupService.Granularity.HOUR, recent, recent, null, null, "none").size());
+    }
+}
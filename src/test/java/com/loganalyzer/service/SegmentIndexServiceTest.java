@@ -0,0 +1,80 @@
+package com.loganalyzer.service;
+
+import com.loganalyzer.model.LogEntry;
+import com.loganalyzer.repository.LogEntryRowMapper;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SegmentIndexServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private SegmentIndexService index;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:segments;MODE=PostgreSQL;DATABASE_TO_UPPER=false;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS log_entries");
+        jdbcTemplate.execute("CREATE TABLE log_entries (id BIGINT PRIMARY KEY, timestamp TIMESTAMP NOT NULL, log_level VARCHAR(16), message VARCHAR(2000))");
+        // Ten hourly segments; the order id only appears in hours 2 and 7, "order-42x" in hour 5
+        jdbcTemplate.execute("INSERT INTO log_entries SELECT \"X\", TIMESTAMP '2024-01-01 00:00:00' + \"X\" * INTERVAL '1' MINUTE, 'INFO', "
+            + "CASE WHEN \"X\" / 60 IN (2, 7) THEN 'shipped order-42 batch ' || \"X\" "
+            + "WHEN \"X\" / 60 = 5 THEN 'shipped order-42x batch ' || \"X\" ELSE 'heartbeat ' || \"X\" END FROM SYSTEM_RANGE(0, 599)");
+
+        index = new SegmentIndexService();
+        ReflectionTestUtils.setField(index, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(index, "enabled", true);
+        ReflectionTestUtils.setField(index, "segmentMinutes", 60L);
+        ReflectionTestUtils.setField(index, "bloomInitialBits", 4096L);
+        ReflectionTestUtils.setField(index, "bloomFalsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(index, "bloomMaxBits", 1L << 20);
+        index.onInserted(jdbcTemplate.query("SELECT * FROM log_entries", LogEntryRowMapper.INSTANCE));
+    }
+
+    @Test
+    void searchStopsAtTheLimitNewestFirst() {
+        List<LogEntry> matches = index.search("order-42", 3);
+        assertEquals(List.of(479L, 478L, 477L), matches.stream().map(LogEntry::getId).toList());
+    }
+
+    @Test
+    void searchChecksTokenBoundaries() {
+        List<LogEntry> matches = index.search("order-42", 1000);
+        assertEquals(120, matches.size());
+        assertTrue(matches.stream().noneMatch(entry -> entry.getMessage().contains("order-42x")));
+    }
+
+    @Test
+    void futureTimestampDoesNotEvictCurrentSegments() {
+        ReflectionTestUtils.setField(index, "retentionHours", 24L);
+        LocalDateTime recent = LocalDateTime.now().minusHours(1);
+        index.onInserted(List.of(
+            new LogEntry(1000L, recent, "INFO", "recent order-77"),
+            new LogEntry(1001L, recent.plusYears(5), "INFO", "clock skew")));
+
+        index.evictExpiredSegments();
+        index.onInserted(List.of(new LogEntry(1002L, recent.plusMinutes(1), "INFO", "later order-78")));
+
+        // Only the 2024 segments are past retention; the recent one stays and keeps indexing
+        Map<String, Object> stats = index.getStats();
+        assertEquals(3L, stats.get("indexedRows"), stats.toString());
+    }
+
+    @Test
+    void pruneRestrictsLikeFiltersToCandidateSegments() {
+        String pruned = index.prune("SELECT * FROM log_entries WHERE message LIKE '%shipped order-42 %' ORDER BY timestamp");
+        assertTrue(pruned.contains("timestamp >= TIMESTAMP '2024-01-01 02:00:00' AND timestamp < TIMESTAMP '2024-01-01 03:00:00'"), pruned);
+        assertEquals(8L, index.getStats().get("segmentsSkipped"));
+        assertEquals(120, jdbcTemplate.query(pruned, LogEntryRowMapper.INSTANCE).size());
+    }
+}
@@ -0,0 +1,122 @@
+package com.loganalyzer.service;
+
+import com.loganalyzer.dto.SqlCandidate;
+import com.loganalyzer.model.LogEntry;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpeculativeQueryExecutorTest {
+
+    private static final String ALL = "SELECT id, timestamp, log_level, message FROM log_entries ORDER BY id";
+
+    private SpeculativeQueryExecutor executor;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:speculative;MODE=PostgreSQL;DATABASE_TO_UPPER=false;DB_CLOSE_DELAY=-1");
+        try (Connection connection = dataSource.getConnection(); Statement st = connection.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS log_entries");
+            st.execute("CREATE TABLE log_entries (id BIGINT PRIMARY KEY, timestamp TIMESTAMP, log_level VARCHAR(16), message VARCHAR(2000))");
+            // Makes a candidate slow: PAUSE(ms) sleeps for each row it is evaluated on
+            st.execute("CREATE ALIAS IF NOT EXISTS PAUSE AS 'boolean pause(long ms) throws Exception { Thread.sleep(ms); return true; }'");
+            st.execute("INSERT INTO log_entries SELECT \"X\", TIMESTAMP '2024-01-01 00:00:00' + \"X\" * INTERVAL '1' SECOND, "
+                + "CASE WHEN MOD(\"X\", 10) = 0 THEN 'ERROR' ELSE 'INFO' END, 'message ' || \"X\" FROM SYSTEM_RANGE(1, 20)");
+        }
+        executor = new SpeculativeQueryExecutor();
+        ReflectionTestUtils.setField(executor, "dataSource", dataSource);
+        ReflectionTestUtils.setField(executor, "parallelism", 3);
+        ReflectionTestUtils.setField(executor, "maxConcurrentQueries", 2);
+        ReflectionTestUtils.setField(executor, "deadlineMs", 10_000L);
+        ReflectionTestUtils.setField(executor, "graceMs", 5_000L);
+        ReflectionTestUtils.setField(executor, "maxRows", 5);
+        executor.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void resultWithinBudgetWins() {
+        List<LogEntry> logs = executor.execute(List.of(
+            new SqlCandidate("strict", "SELECT id, timestamp, log_level, message FROM log_entries WHERE log_level = 'ERROR'"))).getLogs();
+        assertEquals(2, logs.size());
+    }
+
+    @Test
+    void overBudgetCandidateLosesToOneThatFits() {
+        SpeculativeQueryExecutor.Result result = executor.execute(List.of(
+            new SqlCandidate("fallback", ALL),
+            new SqlCandidate("strict", "SELECT id, timestamp, log_level, message FROM log_entries WHERE log_level = 'ERROR';")));
+        assertEquals(2, result.getLogs().size());
+        assertTrue(result.getLogs().stream().allMatch(log -> "ERROR".equals(log.getLogLevel())));
+        // The SQL that produced the rows, as executed
+        assertEquals("SELECT id, timestamp, log_level, message FROM log_entries WHERE log_level = 'ERROR'", result.getSql());
+    }
+
+    @Test
+    void overBudgetResultIsCappedWhenNothingElseHasRows() {
+        List<LogEntry> logs = executor.execute(List.of(
+            new SqlCandidate("fallback", ALL),
+            new SqlCandidate("strict", "SELECT id, timestamp, log_level, message FROM log_entries WHERE log_level = 'DEBUG'"))).getLogs();
+        assertEquals(5, logs.size());
+        assertEquals(1L, logs.get(0).getId());
+    }
+
+    @Test
+    void exactlyMaxRowsIsNotOverBudget() {
+        List<LogEntry> logs = executor.execute(List.of(
+            new SqlCandidate("strict", ALL + " LIMIT 5"))).getLogs();
+        assertEquals(5, logs.size());
+        assertEquals(0L, executor.getStats().get("overBudget"));
+    }
+
+    @Test
+    void allFailedReturnsNull() {
+        assertNull(executor.execute(List.of(new SqlCandidate("strict", "SELECT * FROM missing_table"))));
+        Map<String, Object> stats = executor.getStats();
+        assertEquals(1L, stats.get("allFailed"));
+    }
+
+    @Test
+    void slowerHigherRankedCandidateStillWins() {
+        SpeculativeQueryExecutor.Result result = executor.execute(List.of(
+            new SqlCandidate("strict", "SELECT id, timestamp, log_level, message FROM log_entries WHERE log_level = 'ERROR' AND PAUSE(150)"),
+            new SqlCandidate("fallback", "SELECT id, timestamp, log_level, message FROM log_entries WHERE id <= 3")));
+        assertEquals(List.of(10L, 20L), result.getLogs().stream().map(LogEntry::getId).toList());
+        assertEquals(Map.of("strict", 1L), executor.getStats().get("winsByKind"));
+    }
+
+    @Test
+    void lowerRankedCandidateWinsOnceTheGraceWindowExpires() {
+        ReflectionTestUtils.setField(executor, "graceMs", 100L);
+        long started = System.nanoTime();
+        SpeculativeQueryExecutor.Result result = executor.execute(List.of(
+            new SqlCandidate("strict", "SELECT id, timestamp, log_level, message FROM log_entries WHERE log_level = 'ERROR' AND PAUSE(1500)"),
+            new SqlCandidate("fallback", "SELECT id, timestamp, log_level, message FROM log_entries WHERE id <= 3")));
+        assertEquals(3, result.getLogs().size());
+        assertTrue(System.nanoTime() - started < 2_000_000_000L, "waited for the slow candidate");
+        assertEquals(1L, executor.getStats().get("graceExpirations"));
+    }
+
+    @Test
+    void emptyHigherRankedCandidateDefersToTheNext() {
+        SpeculativeQueryExecutor.Result result = executor.execute(List.of(
+            new SqlCandidate("strict", "SELECT id, timestamp, log_level, message FROM log_entries WHERE log_level = 'DEBUG' AND PAUSE(100)"),
+            new SqlCandidate("fallback", "SELECT id, timestamp, log_level, message FROM log_entries WHERE id <= 3")));
+        assertEquals(3, result.getLogs().size());
+        assertEquals(0L, executor.getStats().get("graceExpirations"));
+    }
+}
@@ -0,0 +1,84 @@
+package com.loganalyzer.service;
+
+import com.loganalyzer.model.LogEntry;
+import com.loganalyzer.util.MessageNormalizer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamStatsServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private StreamStatsService stats;
+
+    @BeforeEach
+    void setUp() {
+        stats = new StreamStatsService();
+        ReflectionTestUtils.setField(stats, "enabled", true);
+        ReflectionTestUtils.setField(stats, "windowMinutes", 10L);
+        ReflectionTestUtils.setField(stats, "retentionHours", 24L);
+        ReflectionTestUtils.setField(stats, "topCapacity", 10);
+        ReflectionTestUtils.setField(stats, "hllPrecision", 12);
+        ReflectionTestUtils.setField(stats, "distinctKeys", List.of("userId"));
+        stats.init();
+    }
+
+    private static List<LogEntry> entries(LocalDateTime at, String level, String message, int from, int to) {
+        List<LogEntry> entries = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            entries.add(new LogEntry(null, at.plusSeconds(i % 60), level, message.replace("#", String.valueOf(i))));
+        }
+        return entries;
+    }
+
+    @Test
+    void topMergesCountsAcrossWindows() {
+        stats.onInserted(entries(START, "ERROR", "Payment failed for userId=# after 3 retries", 0, 5));
+        stats.onInserted(entries(START, "ERROR", "Disk full on volume #", 0, 2));
+        stats.onInserted(entries(START.plusMinutes(10), "ERROR", "Payment failed for userId=# after 3 retries", 5, 9));
+
+        Map<String, Object> top = stats.top("error", START, START.plusMinutes(20), 5);
+        assertEquals(2, top.get("windowCount"));
+        assertEquals(11L, top.get("total"));
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> items = (List<Map<String, Object>>) top.get("items");
+        assertEquals(MessageNormalizer.normalize("Payment failed for userId=1 after 3 retries"), items.get(0).get("template"));
+        assertEquals(9L, items.get(0).get("count"));
+        assertEquals(0L, items.get(0).get("error"));
+        assertEquals(2L, items.get(1).get("count"));
+    }
+
+    @Test
+    void distinctMergesOverlappingWindows() {
+        stats.onInserted(entries(START, "INFO", "login userId=# ok", 0, 100));
+        stats.onInserted(entries(START.plusMinutes(10), "INFO", "login userId=# ok", 50, 150));
+
+        Map<String, Object> distinct = stats.distinct("USERID", START, START.plusMinutes(20));
+        assertEquals("userId", distinct.get("key"));
+        assertEquals(150L, (Long) distinct.get("estimate"), 2);
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> windows = (List<Map<String, Object>>) distinct.get("windows");
+        assertEquals(2, windows.size());
+        assertEquals(100L, (Long) windows.get(0).get("estimate"), 2);
+        assertThrows(IllegalArgumentException.class, () -> stats.distinct("traceId", null, null));
+    }
+
+    @Test
+    void futureTimestampDoesNotEvictCurrentWindows() {
+        LocalDateTime recent = LocalDateTime.now().minusHours(1);
+        stats.onInserted(entries(recent, "ERROR", "Disk full on volume #", 0, 3));
+        stats.onInserted(entries(recent.plusYears(5), "ERROR", "Clock skew #", 0, 1));
+
+        stats.evictExpiredWindows();
+
+        assertEquals(3L, stats.top("error", recent.minusMinutes(10), recent.plusMinutes(10), 5).get("total"));
+    }
+}
@@ -0,0 +1,109 @@
+package com.loganalyzer.service;
+
+import com.loganalyzer.model.LogEntry;
+import com.loganalyzer.repository.LogEntryRowMapper;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimeSlicedQueryExecutorTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private TimeSlicedQueryExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:sliced;MODE=PostgreSQL;DATABASE_TO_UPPER=false;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS log_entries");
+        jdbcTemplate.execute("CREATE TABLE log_entries (id BIGINT PRIMARY KEY, timestamp TIMESTAMP NOT NULL, log_level VARCHAR(16), message VARCHAR(2000))");
+        jdbcTemplate.execute("CREATE INDEX idx_log_entries_timestamp ON log_entries(timestamp)");
+        // A burst: 900 rows in the first 15 minutes, then 100 spread over a day
+        jdbcTemplate.execute("INSERT INTO log_entries SELECT \"X\", TIMESTAMP '2024-01-01 00:00:00' + \"X\" * INTERVAL '1' SECOND, "
+            + "CASE WHEN MOD(\"X\", 7) = 0 THEN 'ERROR' ELSE 'INFO' END, 'message ' || \"X\" FROM SYSTEM_RANGE(1, 900)");
+        jdbcTemplate.execute("INSERT INTO log_entries SELECT \"X\", TIMESTAMP '2024-01-01 01:00:00' + (\"X\" - 900) * INTERVAL '15' MINUTE, "
+            + "CASE WHEN MOD(\"X\", 7) = 0 THEN 'ERROR' ELSE 'INFO' END, 'message ' || \"X\" FROM SYSTEM_RANGE(901, 1000)");
+
+        executor = new TimeSlicedQueryExecutor();
+        ReflectionTestUtils.setField(executor, "dataSource", dataSource);
+        ReflectionTestUtils.setField(executor, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(executor, "enabled", true);
+        ReflectionTestUtils.setField(executor, "slices", 4);
+        ReflectionTestUtils.setField(executor, "minRows", 500L);
+        executor.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    private List<LogEntry> serial(String sql) {
+        return jdbcTemplate.query(sql, LogEntryRowMapper.INSTANCE);
+    }
+
+    @Test
+    void slicedResultMatchesSerialResult() {
+        for (String sql : List.of(
+                "SELECT id, timestamp, log_level, message FROM log_entries WHERE log_level = 'ERROR' ORDER BY timestamp",
+                "SELECT id, timestamp, log_level, message FROM log_entries WHERE log_level = 'ERROR' ORDER BY timestamp DESC",
+                "SELECT id, timestamp, log_level, message FROM log_entries WHERE log_level = 'INFO' ORDER BY timestamp DESC LIMIT 30")) {
+            List<LogEntry> sliced = executor.tryExecute(sql);
+            assertNotNull(sliced, sql);
+            assertEquals(serial(sql).stream().map(LogEntry::getId).toList(), sliced.stream().map(LogEntry::getId).toList(), sql);
+        }
+    }
+
+    @Test
+    void boundariesAreRowQuantiles() {
+        assertNotNull(executor.tryExecute("SELECT * FROM log_entries WHERE 1 = 1 ORDER BY timestamp"));
+        Object plan = ReflectionTestUtils.getField(executor, "cachedPlan");
+        @SuppressWarnings("unchecked")
+        List<LocalDateTime> boundaries = (List<LocalDateTime>) ReflectionTestUtils.getField(plan, "boundaries");
+        // Equal-width time slices would put the whole burst into the first slice
+        assertEquals(List.of(
+            LocalDateTime.of(2024, 1, 1, 0, 4, 11),
+            LocalDateTime.of(2024, 1, 1, 0, 8, 21),
+            LocalDateTime.of(2024, 1, 1, 0, 12, 31)), boundaries);
+    }
+
+    @Test
+    void boundariesAreCachedUntilEnoughRowsChange() {
+        assertNotNull(executor.tryExecute("SELECT * FROM log_entries WHERE 1 = 1 ORDER BY timestamp"));
+        Object plan = ReflectionTestUtils.getField(executor, "cachedPlan");
+
+        jdbcTemplate.execute("INSERT INTO log_entries SELECT \"X\", TIMESTAMP '2024-01-03 00:00:00' + \"X\" * INTERVAL '1' SECOND, "
+            + "'INFO', 'late ' || \"X\" FROM SYSTEM_RANGE(1001, 1050)");
+        executor.onInserted(jdbcTemplate.query("SELECT * FROM log_entries WHERE id > 1000", LogEntryRowMapper.INSTANCE));
+        // Open-ended last slice still returns the rows added after planning
+        List<LogEntry> rows = executor.tryExecute("SELECT * FROM log_entries WHERE message LIKE 'late%' ORDER BY timestamp");
+        assertEquals(50, rows.size());
+        assertSame(plan, ReflectionTestUtils.getField(executor, "cachedPlan"));
+
+        jdbcTemplate.execute("INSERT INTO log_entries SELECT \"X\", TIMESTAMP '2024-01-04 00:00:00' + \"X\" * INTERVAL '1' SECOND, "
+            + "'INFO', 'later ' || \"X\" FROM SYSTEM_RANGE(1051, 1200)");
+        executor.onInserted(jdbcTemplate.query("SELECT * FROM log_entries WHERE id > 1050", LogEntryRowMapper.INSTANCE));
+        assertNotNull(executor.tryExecute("SELECT * FROM log_entries WHERE 1 = 1 ORDER BY timestamp"));
+        assertNotSame(plan, ReflectionTestUtils.getField(executor, "cachedPlan"));
+    }
+
+    @Test
+    void smallTableRunsSerially() {
+        ReflectionTestUtils.setField(executor, "minRows", 5000L);
+        assertNull(executor.tryExecute("SELECT * FROM log_entries WHERE 1 = 1 ORDER BY timestamp"));
+    }
+
+    @Test
+    void unsplittableQueryRunsSerially() {
+        assertNull(executor.tryExecute("SELECT log_level, COUNT(*) FROM log_entries WHERE 1 = 1 GROUP BY log_level ORDER BY timestamp"));
+    }
+}
@@ -0,0 +1,63 @@
+package com.loganalyzer.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @Test
+    void hasNoFalseNegatives() {
+        BloomFilter bloom = new BloomFilter(1 << 16, 4);
+        for (int i = 0; i < 5000; i++) {
+            bloom.put("token-" + i);
+        }
+        for (int i = 0; i < 5000; i++) {
+            assertTrue(bloom.mightContain("token-" + i));
+        }
+    }
+
+    @Test
+    void falsePositiveRateMatchesFill() {
+        // 10 bits per value with 7 hashes is designed for about 1%
+        BloomFilter bloom = new BloomFilter(100_000, 7);
+        for (int i = 0; i < 10_000; i++) {
+            bloom.put("present-" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (bloom.mightContain("absent-" + i)) {
+                falsePositives++;
+            }
+        }
+        double expected = Math.pow(bloom.fillRatio(), bloom.hashCount());
+        assertEquals(expected, falsePositives / 100_000.0, 0.005);
+        assertTrue(falsePositives / 100_000.0 < 0.02);
+    }
+
+    @Test
+    void putReportsWhetherTheValueWasNew() {
+        BloomFilter bloom = new BloomFilter(1 << 12, 3);
+        assertTrue(bloom.put("alpha"));
+        assertFalse(bloom.put("alpha"));
+    }
+
+    @Test
+    void estimatesDistinctCountFromFill() {
+        BloomFilter bloom = new BloomFilter(1 << 18, 4);
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 20_000; i++) {
+                bloom.put("value-" + i);
+            }
+        }
+        assertEquals(20_000, bloom.estimatedCount(), 20_000 * 0.03);
+    }
+
+    @Test
+    void sizeIsRoundedUpToWholeWords() {
+        BloomFilter bloom = new BloomFilter(100, 2);
+        assertEquals(128, bloom.bitCount());
+        assertEquals(16, bloom.sizeInBytes());
+        assertEquals(0.0, bloom.fillRatio());
+    }
+}
@@ -0,0 +1,61 @@
+package com.loganalyzer.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HyperLogLogTest {
+
+    private static HyperLogLog sketch(int precision, int from, int to) {
+        HyperLogLog hll = new HyperLogLog(precision);
+        for (int i = from; i < to; i++) {
+            hll.add("user-" + i);
+        }
+        return hll;
+    }
+
+    @Test
+    void estimatesWithinTheStandardError() {
+        // 1.04 / sqrt(4096) is about 1.6%; allow three standard errors
+        for (int cardinality : new int[] {1_000, 20_000, 500_000}) {
+            long estimate = sketch(12, 0, cardinality).estimate();
+            assertEquals(cardinality, estimate, cardinality * 0.05, "cardinality " + cardinality);
+        }
+    }
+
+    @Test
+    void smallCardinalitiesUseLinearCounting() {
+        assertEquals(0, new HyperLogLog(12).estimate());
+        assertEquals(10, sketch(12, 0, 10).estimate());
+        assertEquals(200, sketch(12, 0, 200).estimate(), 3);
+    }
+
+    @Test
+    void duplicatesDoNotChangeTheEstimate() {
+        HyperLogLog hll = sketch(10, 0, 5_000);
+        long estimate = hll.estimate();
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 5_000; i++) {
+                hll.add("user-" + i);
+            }
+        }
+        assertEquals(estimate, hll.estimate());
+    }
+
+    @Test
+    void mergeEqualsTheSketchOfTheUnion() {
+        HyperLogLog first = sketch(12, 0, 60_000);
+        HyperLogLog second = sketch(12, 40_000, 100_000);
+        first.merge(second);
+        assertEquals(sketch(12, 0, 100_000).estimate(), first.estimate());
+        assertEquals(100_000, first.estimate(), 5_000);
+    }
+
+    @Test
+    void rejectsMismatchedOrInvalidPrecision() {
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(12).merge(new HyperLogLog(10)));
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(3));
+        assertThrows(IllegalArgumentException.class, () -> new HyperLogLog(19));
+        assertEquals(4096, new HyperLogLog(12).sizeInBytes());
+    }
+}
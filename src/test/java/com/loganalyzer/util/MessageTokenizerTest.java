@@ -0,0 +1,64 @@
+package com.loganalyzer.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageTokenizerTest {
+
+    private static List<String> tokens(String message) {
+        List<String> tokens = new ArrayList<>();
+        MessageTokenizer.tokens(message, tokens::add);
+        return tokens;
+    }
+
+    @Test
+    void splitsLowerCasedAlphanumericRuns() {
+        assertEquals(List.of("connection", "to", "db01", "timed", "out"), tokens("Connection to DB01 timed out!"));
+    }
+
+    @Test
+    void indexesHyphenatedValuesWhole() {
+        String uuid = "3f2a9c1e-7b4d-4e8a-9c0f-1a2b3c4d5e6f";
+        List<String> tokens = tokens("request traceId=" + uuid + ", status: ok.");
+        assertTrue(tokens.contains(uuid));
+        assertTrue(tokens.contains("3f2a9c1e"));
+        assertTrue(tokens.contains("traceid"));
+        // Single-run values are already indexed as runs, not again as values
+        assertEquals(1, tokens.stream().filter("ok"::equals).count());
+    }
+
+    @Test
+    void trailingSentencePunctuationIsNotPartOfAValue() {
+        assertTrue(tokens("failed for user=jane.doe.").contains("jane.doe"));
+    }
+
+    @Test
+    void skipsTokensOutsideTheLengthLimits() {
+        String longRun = "x".repeat(MessageTokenizer.MAX_TOKEN_LENGTH + 1);
+        assertEquals(List.of("ok"), tokens("a ok " + longRun));
+        assertTrue(tokens(null).isEmpty());
+    }
+
+    @Test
+    void identifierLookupRequiresEveryRun() {
+        assertEquals(List.of("order", "42", "eu"), MessageTokenizer.requiredTokens("order-42-eu", false));
+    }
+
+    @Test
+    void substringMatchOnlyRequiresBoundedTokens() {
+        // ILIKE '%ection refused by pe%' may match inside "connection" and "peer"
+        assertEquals(List.of("refused", "by"), MessageTokenizer.requiredTokens("ection refused by pe", true));
+        assertEquals(List.of(), MessageTokenizer.requiredTokens("timeout", true));
+    }
+
+    @Test
+    void valuesNeedTheirDelimiterInsideTheTerm() {
+        // The value may continue past the end of the term, e.g. id=ab-12-more
+        assertFalse(MessageTokenizer.requiredTokens("id=ab-12", false).contains("ab-12"));
+        assertTrue(MessageTokenizer.requiredTokens("id=ab-12 ", false).contains("ab-12"));
+    }
+}
@@ -0,0 +1,103 @@
+package com.loganalyzer.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RingBufferTest {
+
+    @Test
+    void capacityIsRoundedUpToPowerOfTwo() {
+        assertEquals(8, new RingBuffer<Integer>(5).capacity());
+        assertEquals(8, new RingBuffer<Integer>(8).capacity());
+        assertThrows(IllegalArgumentException.class, () -> new RingBuffer<Integer>(1));
+    }
+
+    @Test
+    void offerFailsWhenFullAndSucceedsAfterDrain() {
+        RingBuffer<Integer> buffer = new RingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(buffer.offer(i));
+        }
+        assertFalse(buffer.offer(4));
+        assertEquals(4, buffer.size());
+
+        List<Integer> drained = new ArrayList<>();
+        assertEquals(2, buffer.drainTo(drained, 2));
+        assertEquals(List.of(0, 1), drained);
+        assertTrue(buffer.offer(4));
+        assertTrue(buffer.offer(5));
+        assertFalse(buffer.offer(6));
+
+        drained.clear();
+        assertEquals(4, buffer.drainTo(drained, 10));
+        assertEquals(List.of(2, 3, 4, 5), drained);
+        assertEquals(0, buffer.size());
+    }
+
+    @Test
+    void concurrentProducersLoseAndDuplicateNothingAcrossWrapAround() throws Exception {
+        // A small ring forces thousands of wrap-arounds and full-buffer retries
+        RingBuffer<Long> buffer = new RingBuffer<>(16);
+        int producers = 4;
+        int perProducer = 50_000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            long base = (long) p * perProducer;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (long i = 0; i < perProducer; i++) {
+                    while (!buffer.offer(base + i)) {
+                        // Yield rather than spin so the consumer gets CPU on small machines
+                        Thread.yield();
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        start.countDown();
+        int total = producers * perProducer;
+        boolean[] seen = new boolean[total];
+        long[] lastPerProducer = new long[producers];
+        Arrays.fill(lastPerProducer, -1);
+        List<Long> batch = new ArrayList<>();
+        int received = 0;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (received < total) {
+            assertTrue(System.nanoTime() < deadline, "timed out after " + received + " items");
+            batch.clear();
+            if (buffer.drainTo(batch, 64) == 0) {
+                Thread.yield();
+            }
+            for (long value : batch) {
+                assertFalse(seen[(int) value], "duplicate " + value);
+                seen[(int) value] = true;
+                // Each producer's items come out in the order it offered them
+                int producer = (int) (value / perProducer);
+                assertTrue(value > lastPerProducer[producer], "reordered " + value);
+                lastPerProducer[producer] = value;
+                received++;
+            }
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, buffer.size());
+        for (int i = 0; i < total; i++) {
+            assertTrue(seen[i], "lost " + i);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.loganalyzer.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScalableBloomFilterTest {
+
+    private static double measuredFalsePositiveRate(ScalableBloomFilter bloom) {
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (bloom.mightContain("absent-" + i)) {
+                falsePositives++;
+            }
+        }
+        return falsePositives / 100_000.0;
+    }
+
+    @Test
+    void growsToKeepTheTargetRate() {
+        ScalableBloomFilter bloom = new ScalableBloomFilter(4096, 0.01, 1L << 30);
+        for (int i = 0; i < 200_000; i++) {
+            bloom.put("present-" + i);
+        }
+        for (int i = 0; i < 200_000; i++) {
+            assertTrue(bloom.mightContain("present-" + i));
+        }
+        assertTrue(bloom.stageCount() > 1);
+        assertTrue(measuredFalsePositiveRate(bloom) < 0.01);
+        assertTrue(bloom.estimatedFalsePositiveRate() < 0.01);
+        assertEquals(200_000, bloom.estimatedCount(), 200_000 * 0.05);
+    }
+
+    @Test
+    void repeatedValuesDoNotGrowTheFilter() {
+        ScalableBloomFilter bloom = new ScalableBloomFilter(1 << 16, 0.01, 1L << 30);
+        for (int round = 0; round < 50; round++) {
+            for (int i = 0; i < 1000; i++) {
+                bloom.put("common-" + i);
+            }
+        }
+        assertEquals(1, bloom.stageCount());
+        assertEquals(8192, bloom.sizeInBytes());
+    }
+
+    @Test
+    void stopsGrowingAtMaxBits() {
+        ScalableBloomFilter bloom = new ScalableBloomFilter(4096, 0.01, 4096 + 8192);
+        for (int i = 0; i < 50_000; i++) {
+            bloom.put("present-" + i);
+        }
+        assertEquals(2, bloom.stageCount());
+        assertEquals((4096 + 8192) / 8, bloom.sizeInBytes());
+        // Saturated, but still never a false negative
+        assertTrue(bloom.mightContain("present-0"));
+        assertTrue(bloom.estimatedFalsePositiveRate() > 0.5);
+    }
+
+    @Test
+    void rejectsInvalidRate() {
+        assertThrows(IllegalArgumentException.class, () -> new ScalableBloomFilter(4096, 0, 1 << 20));
+        assertThrows(IllegalArgumentException.class, () -> new ScalableBloomFilter(4096, 1, 1 << 20));
+    }
+}
@@ -0,0 +1,70 @@
+package com.loganalyzer.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimpleFilterQueryTest {
+
+    @Test
+    void parsesFilterQueryWithLimit() {
+        SimpleFilterQuery query = SimpleFilterQuery.parse(
+            "SELECT id, timestamp, log_level, message FROM log_entries WHERE log_level = 'ERROR' ORDER BY timestamp DESC LIMIT 50;");
+        assertNotNull(query);
+        assertEquals("log_level = 'ERROR'", query.getCondition());
+        assertTrue(query.isDescending());
+        assertEquals(50, query.getLimit());
+        assertEquals("timestamp", query.timestampColumn());
+    }
+
+    @Test
+    void addsConditionAndKeepsOrderAndLimit() {
+        SimpleFilterQuery query = SimpleFilterQuery.parse(
+            "select * from log_entries where message ilike '%timeout%' or log_level = 'WARN' order by timestamp");
+        assertNotNull(query);
+        assertFalse(query.isDescending());
+        assertNull(query.getLimit());
+        assertEquals("SELECT * FROM log_entries WHERE (message ilike '%timeout%' or log_level = 'WARN') AND timestamp >= ?"
+            + " ORDER BY timestamp ASC", query.withExtraCondition("timestamp >= ?"));
+    }
+
+    @Test
+    void qualifiesTimestampWithAlias() {
+        SimpleFilterQuery query = SimpleFilterQuery.parse(
+            "SELECT l.id, l.timestamp, l.log_level, l.message FROM log_entries AS l WHERE l.log_level = 'ERROR' ORDER BY l.timestamp DESC");
+        assertNotNull(query);
+        assertEquals("l.timestamp", query.timestampColumn());
+        assertTrue(query.withExtraCondition("l.timestamp < ?").startsWith("SELECT l.id, l.timestamp, l.log_level, l.message FROM log_entries l WHERE"));
+    }
+
+    @Test
+    void keywordsInsideLiteralsAreIgnored() {
+        SimpleFilterQuery query = SimpleFilterQuery.parse(
+            "SELECT * FROM log_entries WHERE message LIKE '%select from union; -- it''s%' ORDER BY timestamp");
+        assertNotNull(query);
+        assertEquals("message LIKE '%select from union; -- it''s%'", query.getCondition());
+    }
+
+    @Test
+    void rejectsQueriesThatCannotBeSplit() {
+        assertNull(SimpleFilterQuery.parse("SELECT * FROM log_entries WHERE id IN (SELECT id FROM log_entries) ORDER BY timestamp"));
+        assertNull(SimpleFilterQuery.parse("SELECT log_level, COUNT(*) FROM log_entries WHERE 1 = 1 GROUP BY log_level ORDER BY timestamp"));
+        assertNull(SimpleFilterQuery.parse("SELECT * FROM log_entries e JOIN log_patterns p ON 1 = 1 WHERE 1 = 1 ORDER BY timestamp"));
+        assertNull(SimpleFilterQuery.parse("SELECT * FROM log_entries WHERE 1 = 1 ORDER BY id"));
+        assertNull(SimpleFilterQuery.parse("SELECT * FROM log_entries ORDER BY timestamp"));
+        assertNull(SimpleFilterQuery.parse("SELECT * FROM log_entries WHERE 1 = 1 ORDER BY timestamp LIMIT 10 OFFSET 5"));
+        assertNull(SimpleFilterQuery.parse("SELECT * FROM log_entries WHERE message = 'unterminated ORDER BY timestamp"));
+        assertNull(SimpleFilterQuery.parse("SELECT \"message\" FROM log_entries WHERE 1 = 1 ORDER BY timestamp"));
+    }
+
+    @Test
+    void distinctOnlyWhenTimestampIsSelected() {
+        assertNotNull(SimpleFilterQuery.parse("SELECT DISTINCT timestamp, message FROM log_entries WHERE 1 = 1 ORDER BY timestamp"));
+        assertNull(SimpleFilterQuery.parse("SELECT DISTINCT message FROM log_entries WHERE 1 = 1 ORDER BY timestamp"));
+    }
+
+    @Test
+    void orderByAnotherAliasIsRejected() {
+        assertNull(SimpleFilterQuery.parse("SELECT * FROM log_entries l WHERE 1 = 1 ORDER BY x.timestamp"));
+    }
+}
@@ -0,0 +1,78 @@
+package com.loganalyzer.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpaceSavingTest {
+
+    @Test
+    void countsAreExactBelowCapacity() {
+        SpaceSaving sketch = new SpaceSaving(10);
+        for (String key : List.of("a", "b", "a", "c", "a", "b")) {
+            sketch.add(key);
+        }
+        List<SpaceSaving.Counter> counters = sketch.counters();
+        assertEquals(List.of("a", "b", "c"), counters.stream().map(SpaceSaving.Counter::getKey).toList());
+        assertEquals(List.of(3L, 2L, 1L), counters.stream().map(SpaceSaving.Counter::getCount).toList());
+        assertTrue(counters.stream().allMatch(counter -> counter.getError() == 0));
+        assertEquals(6, sketch.getTotal());
+        assertEquals(0, sketch.getMinimum());
+    }
+
+    @Test
+    void newKeyEvictsTheMinimumAndInheritsItsCount() {
+        SpaceSaving sketch = new SpaceSaving(2);
+        for (String key : List.of("a", "a", "a", "b", "b", "c")) {
+            sketch.add(key);
+        }
+        List<SpaceSaving.Counter> counters = sketch.counters();
+        assertEquals(2, counters.size());
+        SpaceSaving.Counter c = counters.stream().filter(counter -> counter.getKey().equals("c")).findFirst().orElseThrow();
+        // c took over b's slot: 2 inherited plus its own occurrence
+        assertEquals(3, c.getCount());
+        assertEquals(2, c.getError());
+        assertTrue(counters.stream().noneMatch(counter -> counter.getKey().equals("b")));
+        assertEquals(3, sketch.getMinimum());
+    }
+
+    @Test
+    void boundsHoldOnASkewedStream() {
+        int capacity = 50;
+        SpaceSaving sketch = new SpaceSaving(capacity);
+        ZipfSampler zipf = new ZipfSampler(10_000, 1.1);
+        Random random = new Random(17);
+        Map<String, Long> exact = new HashMap<>();
+        for (int i = 0; i < 200_000; i++) {
+            String key = "key-" + zipf.sample(random);
+            sketch.add(key);
+            exact.merge(key, 1L, Long::sum);
+        }
+
+        long total = sketch.getTotal();
+        long sum = 0;
+        for (SpaceSaving.Counter counter : sketch.counters()) {
+            long truth = exact.getOrDefault(counter.getKey(), 0L);
+            assertTrue(counter.getCount() >= truth, counter.getKey() + " underestimated");
+            assertTrue(counter.getCount() - counter.getError() <= truth, counter.getKey() + " error bound too small");
+            sum += counter.getCount();
+        }
+        // Once full, the counters account for every element exactly once
+        assertEquals(total, sum);
+        assertTrue(sketch.getMinimum() <= total / capacity);
+
+        // Every key above total/capacity is tracked
+        for (Map.Entry<String, Long> entry : exact.entrySet()) {
+            if (entry.getValue() > total / capacity) {
+                assertTrue(sketch.counters().stream().anyMatch(counter -> counter.getKey().equals(entry.getKey())),
+                    entry.getKey() + " missing");
+            }
+        }
+        assertEquals("key-1", sketch.counters().get(0).getKey());
+    }
+}
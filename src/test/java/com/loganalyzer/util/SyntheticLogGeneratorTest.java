@@ -0,0 +1,81 @@
+package com.loganalyzer.util;
+
+import com.loganalyzer.model.LogEntry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SyntheticLogGeneratorTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private static List<LogEntry> generate(SyntheticLogGenerator generator) {
+        List<LogEntry> entries = new ArrayList<>();
+        generator.forEachRemaining(entries::add);
+        return entries;
+    }
+
+    private static long flowFailures(List<LogEntry> entries) {
+        return entries.stream()
+            .filter(entry -> entry.getMessage().contains("traceId") || entry.getMessage().contains("requestId"))
+            .filter(entry -> "ERROR".equals(entry.getLogLevel()))
+            .count();
+    }
+
+    private static SyntheticLogGenerator generator(long seed) {
+        return new SyntheticLogGenerator(SyntheticLogGenerator.defaultPatterns(), 20_000, 10, START, seed);
+    }
+
+    @Test
+    void sameSeedGivesSameEntries() {
+        List<LogEntry> first = generate(generator(1));
+        List<LogEntry> second = generate(generator(1));
+        assertEquals(20_000, first.size());
+        for (int i = 0; i < first.size(); i++) {
+            assertEquals(first.get(i).getMessage(), second.get(i).getMessage());
+            assertEquals(first.get(i).getTimestamp(), second.get(i).getTimestamp());
+        }
+    }
+
+    @Test
+    void errorRateControlsFailedFlows() {
+        assertEquals(0, flowFailures(generate(generator(2).withErrorRate(0))));
+        long normal = flowFailures(generate(generator(2).withErrorRate(0.02).withErrorBursts(3600, 0, 1)));
+        long frequent = flowFailures(generate(generator(2).withErrorRate(0.5).withErrorBursts(3600, 0, 1)));
+        assertTrue(normal > 0);
+        assertTrue(frequent > normal * 10, normal + " vs " + frequent);
+    }
+
+    @Test
+    void burstsConcentrateFailures() {
+        // 20,000 rows at 10/s span about 2,000 s; the first 200 s of every 1,000 s are bursts
+        List<LogEntry> entries = generate(generator(3).withErrorRate(0.02).withErrorBursts(1000, 200, 20));
+        long inBurst = 0;
+        long outside = 0;
+        for (LogEntry entry : entries) {
+            if ("ERROR".equals(entry.getLogLevel()) && entry.getMessage().contains("traceId")) {
+                long second = Duration.between(START, entry.getTimestamp()).getSeconds();
+                if (second % 1000 < 200) {
+                    inBurst++;
+                } else {
+                    outside++;
+                }
+            }
+        }
+        // A fifth of the time but most of the failures
+        assertTrue(inBurst > outside, inBurst + " vs " + outside);
+    }
+
+    @Test
+    void rejectsInvalidOptions() {
+        assertThrows(IllegalArgumentException.class, () -> generator(4).withConcurrentFlows(0));
+        assertThrows(IllegalArgumentException.class, () -> generator(4).withErrorRate(1.5));
+        assertThrows(IllegalArgumentException.class, () -> generator(4).withErrorBursts(0, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> generator(4).withErrorBursts(100, 200, 2));
+    }
+}
@@ -0,0 +1,95 @@
+package com.loganalyzer.util;
+
+import com.loganalyzer.model.LogEntry;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SyslogParserTest {
+
+    private static final LocalDateTime RECEIVED = LocalDateTime.of(2024, 3, 10, 12, 0, 0);
+
+    @Test
+    void parsesRfc3164WithTagAndPid() {
+        LogEntry entry = SyslogParser.parseSyslog("<11>Mar  9 22:14:15 host1 sshd[4242]: Failed password for root\n", RECEIVED);
+        assertEquals(LocalDateTime.of(2024, 3, 9, 22, 14, 15), entry.getTimestamp());
+        // facility 1, severity 3 (error)
+        assertEquals("ERROR", entry.getLogLevel());
+        assertEquals("Failed password for root", entry.getMessage());
+    }
+
+    @Test
+    void rfc3164TimestampInTheFutureBelongsToLastYear() {
+        LogEntry entry = SyslogParser.parseSyslog("<14>Dec 31 23:59:59 host app: year end", RECEIVED);
+        assertEquals(LocalDateTime.of(2023, 12, 31, 23, 59, 59), entry.getTimestamp());
+        assertEquals("INFO", entry.getLogLevel());
+        assertEquals("year end", entry.getMessage());
+    }
+
+    @Test
+    void parsesRfc5424WithStructuredData() {
+        LogEntry entry = SyslogParser.parseSyslog(
+            "<165>1 2024-03-09T22:14:15.003 host app 1234 ID47 [exampleSDID@32473 iut=\"3\" eventSource=\"App]\"] Disk usage high",
+            RECEIVED);
+        assertEquals(LocalDateTime.of(2024, 3, 9, 22, 14, 15, 3_000_000), entry.getTimestamp());
+        // severity 5 (notice)
+        assertEquals("INFO", entry.getLogLevel());
+        assertEquals("Disk usage high", entry.getMessage());
+    }
+
+    @Test
+    void rfc5424NilTimestampAndStructuredDataUseReceiveTime() {
+        LogEntry entry = SyslogParser.parseSyslog("<12>1 - host app - - - Low memory", RECEIVED);
+        assertEquals(RECEIVED, entry.getTimestamp());
+        assertEquals("WARN", entry.getLogLevel());
+        assertEquals("Low memory", entry.getMessage());
+    }
+
+    @Test
+    void malformedPriorityFallsBackToRawLine() {
+        LogEntry outOfRange = SyslogParser.parseSyslog("<999>Mar  9 22:14:15 host app: text", RECEIVED);
+        assertEquals("INFO", outOfRange.getLogLevel());
+        assertEquals(RECEIVED, outOfRange.getTimestamp());
+        assertEquals("<999>Mar  9 22:14:15 host app: text", outOfRange.getMessage());
+
+        LogEntry notNumeric = SyslogParser.parseSyslog("<ab>text", RECEIVED);
+        assertEquals("<ab>text", notNumeric.getMessage());
+
+        LogEntry unclosed = SyslogParser.parseSyslog("<13 text", RECEIVED);
+        assertEquals("<13 text", unclosed.getMessage());
+    }
+
+    @Test
+    void rfc3164WithoutTimestampKeepsWholeMessage() {
+        LogEntry entry = SyslogParser.parseSyslog("<10>kernel panic imminent", RECEIVED);
+        assertEquals(RECEIVED, entry.getTimestamp());
+        assertEquals("ERROR", entry.getLogLevel());
+        assertEquals("kernel panic imminent", entry.getMessage());
+    }
+
+    @Test
+    void rawLineWithTimestampAndLevel() {
+        LogEntry entry = SyslogParser.parseRaw("2024-03-09T08:00:01 warning cache miss ratio 0.4\r\n", RECEIVED);
+        assertEquals(LocalDateTime.of(2024, 3, 9, 8, 0, 1), entry.getTimestamp());
+        assertEquals("WARN", entry.getLogLevel());
+        assertEquals("cache miss ratio 0.4", entry.getMessage());
+    }
+
+    @Test
+    void rawLineWithoutTimestampOrLevel() {
+        LogEntry entry = SyslogParser.parseRaw("user logged in", RECEIVED);
+        assertEquals(RECEIVED, entry.getTimestamp());
+        assertEquals("INFO", entry.getLogLevel());
+        assertEquals("user logged in", entry.getMessage());
+    }
+
+    @Test
+    void emptyFramesAreSkippedAndLongMessagesCut() {
+        assertNull(SyslogParser.parseSyslog("\r\n", RECEIVED));
+        assertNull(SyslogParser.parseRaw("", RECEIVED));
+        String longLine = "x".repeat(SyslogParser.MAX_MESSAGE_LENGTH + 10);
+        assertEquals(SyslogParser.MAX_MESSAGE_LENGTH, SyslogParser.parseRaw(longLine, RECEIVED).getMessage().length());
+    }
+}
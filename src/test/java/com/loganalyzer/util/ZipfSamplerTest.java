@@ -0,0 +1,70 @@
+package com.loganalyzer.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZipfSamplerTest {
+
+    private static final int SAMPLES = 200_000;
+
+    private static long[] histogram(ZipfSampler sampler, int n, long seed) {
+        Random random = new Random(seed);
+        long[] counts = new long[n + 1];
+        for (int i = 0; i < SAMPLES; i++) {
+            counts[sampler.sample(random)]++;
+        }
+        return counts;
+    }
+
+    @Test
+    void frequenciesFollowThePowerLaw() {
+        int n = 1000;
+        double exponent = 1.1;
+        long[] counts = histogram(new ZipfSampler(n, exponent), n, 7);
+        double normalizer = 0;
+        for (int k = 1; k <= n; k++) {
+            normalizer += Math.pow(k, -exponent);
+        }
+        for (int k : new int[] {1, 2, 5, 10}) {
+            double expected = Math.pow(k, -exponent) / normalizer;
+            assertEquals(expected, (double) counts[k] / SAMPLES, expected * 0.05, "rank " + k);
+        }
+        assertEquals(Math.pow(2, exponent), (double) counts[1] / counts[2], 0.1);
+    }
+
+    @Test
+    void ranksStayInRange() {
+        int n = 50;
+        long[] counts = histogram(new ZipfSampler(n, 0.8), n, 11);
+        assertEquals(0, counts[0]);
+        assertTrue(counts[n] > 0);
+        assertEquals(SAMPLES, Arrays.stream(counts).sum());
+    }
+
+    @Test
+    void singleRankAlwaysReturnsOne() {
+        ZipfSampler sampler = new ZipfSampler(1, 1.0);
+        Random random = new Random(3);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(1, sampler.sample(random));
+        }
+    }
+
+    @Test
+    void exponentOfOneIsHandled() {
+        // The integral switches to its logarithmic form at exponent 1
+        int n = 100;
+        long[] counts = histogram(new ZipfSampler(n, 1.0), n, 5);
+        assertEquals(2.0, (double) counts[1] / counts[2], 0.1);
+    }
+
+    @Test
+    void rejectsInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> new ZipfSampler(0, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> new ZipfSampler(10, 0));
+    }
+}
@@ -5,6 +5,22 @@ export interface LogEntry {
   message: string;
 }
 
+// application/vnd.loganalyzer.columnar+json: one array per field, levels as dictionary indexes,
+// timestamps as epoch millis of the wall-clock value read as UTC
+export interface ColumnarLogs {
+  count: number;
+  fields: string[];
+  levels: string[];
+  columns: {
+    id?: number[];
+    timestamp?: number[];
+    logLevel?: number[];
+    message?: string[];
+  };
+  maxMessageLength: number;
+  truncated: number[];
+}
+
 export interface LogPattern {
   id?: number;
   logLevel: string;
@@ -14,8 +30,11 @@ export interface LogPattern {
 export interface QueryResponse {
   analysis: string;
   logs: LogEntry[];
+  queryId?: string;
 }
 
 export interface QueryRequest {
   query: string;
+  speculative?: boolean;
+  queryId?: string;
 }
\ No newline at end of file